@@ -0,0 +1,63 @@
+package pk.training.basit.polarbookshop.catalogservice.benchmarks;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Books shaped like those of the catalog, with every field set, so that the benchmarks exercise the same branches
+ * as the requests do.
+ */
+final class BookFixtures {
+
+    static final int PAGE_SIZE = 50;
+
+    private BookFixtures() {
+    }
+
+    static Book book(int index) {
+        return Book.builder(isbn(index))
+                .id((long) index)
+                .title("Northern Lights " + index)
+                .author("Lyra Silverstar")
+                .price(9.90 + index)
+                .publisher("Polarsophia")
+                .version(index % 5)
+                .build();
+    }
+
+    static BookDTO bookDto(int index) {
+        return BookDTO.builder(isbn(index))
+                .id((long) index)
+                .title("Northern Lights " + index)
+                .author("Lyra Silverstar")
+                .price(9.90 + index)
+                .publisher("Polarsophia")
+                .version(index % 5)
+                .build();
+    }
+
+    static List<BookDTO> bookDtos(int count) {
+        return IntStream.range(0, count).mapToObj(BookFixtures::bookDto).toList();
+    }
+
+    // The first of several pages, like the default GET /books
+    static PageImpl<BookDTO> page(List<BookDTO> books) {
+        return new PageImpl<>(books, PageRequest.of(0, books.size()), books.size() * 4L);
+    }
+
+    // The first page of GET /books?count=false
+    static SliceImpl<BookDTO> slice(List<BookDTO> books) {
+        return new SliceImpl<>(books, PageRequest.of(0, books.size()), true);
+    }
+
+    private static String isbn(int index) {
+        return String.valueOf(1234567890L + index);
+    }
+
+}
@@ -0,0 +1,55 @@
+package pk.training.basit.polarbookshop.catalogservice.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
+import pk.training.basit.polarbookshop.catalogservice.mapper.BookMapper;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mappings done for every book read or written through BookServiceImpl.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMapperBenchmark {
+
+    private Book book;
+    private BookDTO bookDto;
+
+    @Setup
+    public void setUp() {
+        book = BookFixtures.book(1);
+        bookDto = BookFixtures.bookDto(2);
+    }
+
+    @Benchmark
+    public BookDTO bookToBookDto() {
+        return BookMapper.bookToBookDtoMapper.apply(book);
+    }
+
+    @Benchmark
+    public Book bookDtoToBook() {
+        return BookMapper.bookDtoToBookMapper.apply(bookDto);
+    }
+
+    // Updates the same book every time, as the values written don't change the work done
+    @Benchmark
+    public Book updateBook() {
+        return BookMapper.updateBookMapper.apply(book, bookDto);
+    }
+
+}
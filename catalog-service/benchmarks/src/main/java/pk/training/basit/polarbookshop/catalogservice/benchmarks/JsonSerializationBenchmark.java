@@ -0,0 +1,67 @@
+package pk.training.basit.polarbookshop.catalogservice.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.PagedResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the responses of GET /books and GET /books/{isbn}. The ObjectMapper is configured like
+ * the one of Catalog Service, with the non_null inclusion of jackson.yml, so that the null totals of a slice are
+ * left out as they are in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private PagedResponse pageResponse;
+    private PagedResponse sliceResponse;
+    private BookDTO bookDto;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+        List<BookDTO> books = BookFixtures.bookDtos(BookFixtures.PAGE_SIZE);
+        pageResponse = PagedResponse.builder(BookFixtures.page(books)).build();
+        sliceResponse = PagedResponse.builder(BookFixtures.slice(books)).build();
+        bookDto = books.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pageResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeSlice() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(sliceResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeBook() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookDto);
+    }
+
+}
@@ -0,0 +1,52 @@
+package pk.training.basit.polarbookshop.catalogservice.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.PagedResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PagedResponse.Builder over a page of books, as built by GET /books, with and without the totals.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagedResponseBenchmark {
+
+    private Page<BookDTO> page;
+    private Slice<BookDTO> slice;
+
+    @Setup
+    public void setUp() {
+        List<BookDTO> books = BookFixtures.bookDtos(BookFixtures.PAGE_SIZE);
+        page = BookFixtures.page(books);
+        slice = BookFixtures.slice(books);
+    }
+
+    @Benchmark
+    public PagedResponse buildFromPage() {
+        return PagedResponse.builder(page).build();
+    }
+
+    @Benchmark
+    public PagedResponse buildFromSlice() {
+        return PagedResponse.builder(slice).build();
+    }
+
+}
@@ -0,0 +1,21 @@
+package pk.training.basit.polarbookshop.catalogservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Spring cache abstraction. The cache provider (Caffeine), the cache names and the size and TTL
+ * bounds are configured in cache.yml, so Spring Boot auto-configures the CacheManager and binds the cache
+ * statistics (hits, misses, evictions) to the cache.* metrics exposed through /actuator/metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    // Name of the cache holding BookDTO objects keyed by ISBN
+    public static final String BOOKS_CACHE = "books";
+
+    // Name of the cache holding the total number of books, used to fill the totals of paged responses
+    public static final String BOOK_COUNT_CACHE = "bookCount";
+
+}
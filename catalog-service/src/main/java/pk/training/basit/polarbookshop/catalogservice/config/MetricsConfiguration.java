@@ -0,0 +1,26 @@
+package pk.training.basit.polarbookshop.catalogservice.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Times the methods annotated with @Timed, which Spring Boot doesn't do by itself. The timers are tagged by class,
+ * method and exception, and their percentile histograms are enabled by name in metrics.yml.
+ *
+ * The aspect only times the call itself, so the reactive services record their timers when the returned Mono
+ * completes instead, under the same name and tags.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    // Name of the timer of the book service methods, both blocking and reactive
+    public static final String BOOK_SERVICE_TIMER = "polar.book.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+}
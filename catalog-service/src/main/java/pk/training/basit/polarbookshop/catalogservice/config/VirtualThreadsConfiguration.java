@@ -0,0 +1,70 @@
+package pk.training.basit.polarbookshop.catalogservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the Tomcat request processing, and so the BookService calls made by the controllers, on virtual threads
+ * instead of the pool bounded by server.tomcat.threads.max. A request blocked on the database or on another service
+ * then parks its virtual thread and frees the carrier thread for the other requests, such as those served from the
+ * books cache.
+ *
+ * The number of requests processed at the same time is now only bounded by server.tomcat.max-connections, so the
+ * DataSource is wrapped in a ConnectionLimitingDataSource sized like the connection pool.
+ *
+ * The application is compiled for JDK 17, where virtual threads don't exist, so their executor is looked up
+ * reflectively. Enabling this mode on an older JDK fails at startup.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "polar.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            LOGGER.info("Requests are processed on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("polar.virtual-threads.enabled requires JDK 21 or later, running on "
+                    + Runtime.version(), ex);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    // Static, so that post-processing the DataSource doesn't instantiate this configuration early
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            ObjectProvider<VirtualThreadsProperties> virtualThreadsProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikariDataSource) {
+                    return new ConnectionLimitingDataSource(hikariDataSource, hikariDataSource.getMaximumPoolSize(),
+                            virtualThreadsProperties.getObject().connectionAcquireTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,22 @@
+package pk.training.basit.polarbookshop.catalogservice.config;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Opt-in execution of the requests on virtual threads, which requires running on JDK 21. Since virtual threads are
+ * not bounded by the Tomcat thread pool anymore, the database connections are guarded by a semaphore with as many
+ * permits as the connection pool: a request waits at most connectionAcquireTimeout for a permit.
+ */
+@ConfigurationProperties(prefix = "polar.virtual-threads")
+public record VirtualThreadsProperties(
+
+        boolean enabled,
+
+        @NotNull
+        Duration connectionAcquireTimeout
+
+) {
+}
@@ -0,0 +1,8 @@
+package pk.training.basit.polarbookshop.catalogservice.enums;
+
+public enum BookImportStatus {
+	CREATED,
+	DUPLICATE,
+	INVALID,
+	FAILED
+}
@@ -0,0 +1,16 @@
+package pk.training.basit.polarbookshop.catalogservice.exception;
+
+/**
+ * InvalidCursorException is a runtime exception thrown when a continuation token sent by a client cannot be
+ * decoded, or when it was issued for a different sort than the one requested.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package pk.training.basit.polarbookshop.catalogservice.exception;
+
+/**
+ * TooManyIsbnsException is a runtime exception thrown when a batch lookup asks for more books than can be
+ * resolved in a single query.
+ */
+public class TooManyIsbnsException extends RuntimeException {
+
+    public TooManyIsbnsException(int requested, int max) {
+        super("Cannot look up " + requested + " books at once, the maximum is " + max + ".");
+    }
+}
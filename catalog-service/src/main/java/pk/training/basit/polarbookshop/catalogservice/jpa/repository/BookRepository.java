@@ -1,17 +1,49 @@
 package pk.training.basit.polarbookshop.catalogservice.jpa.repository;
 
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
+import pk.training.basit.polarbookshop.catalogservice.config.CacheConfiguration;
 import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface BookRepository extends JpaRepository<Book,Long> {
+/**
+ * JpaSpecificationExecutor provides the fluent findBy() query used for keyset (seek) scrolling through the catalog.
+ */
+public interface BookRepository extends JpaRepository<Book,Long>, JpaSpecificationExecutor<Book> {
+
+    /**
+     * Returning a Slice instead of a Page makes Spring Data fetch one extra row to know whether a next slice
+     * exists, rather than issuing a separate count query.
+     */
+    Slice<Book> findAllBy(Pageable pageable);
+
+    /**
+     * The count query costs as much as a page query on a large catalog, so its result is cached. The cache is
+     * evicted by BookServiceImpl whenever a book is added or removed, and expires with the TTL of cache.yml
+     * for changes made by other instances.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfiguration.BOOK_COUNT_CACHE)
+    long count();
 
     Optional<Book> findByIsbn(String isbn);
+    List<Book> findByIsbnIn(Collection<String> isbns);
     boolean existsByIsbn(String isbn);
 
+    // Set-based variant of existsByIsbn(), checking a whole batch of ISBNs in a single query
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
     /**
      * DEFINING TRANSACTIONAL CONTEXTS:
      * --------------------------------
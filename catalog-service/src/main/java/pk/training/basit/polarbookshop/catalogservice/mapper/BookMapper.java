@@ -2,6 +2,7 @@ package pk.training.basit.polarbookshop.catalogservice.mapper;
 
 import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
 import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.entity.BookReadModel;
 
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -28,6 +29,17 @@ public class BookMapper {
                 .build();
     };
 
+    public static Function<BookReadModel, BookDTO> bookReadModelToBookDtoMapper = (book) -> {
+        return BookDTO.builder(book.isbn())
+                .id(book.id())
+                .title(book.title())
+                .author(book.author())
+                .price(book.price())
+                .publisher(book.publisher())
+                .version(book.version())
+                .build();
+    };
+
     public static BiFunction<Book, BookDTO, Book> updateBookMapper = (existingBook, bookDto) -> {
         existingBook.setTitle(bookDto.title());
         existingBook.setAuthor(bookDto.author());
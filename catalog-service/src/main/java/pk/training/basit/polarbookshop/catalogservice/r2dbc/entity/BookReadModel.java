@@ -0,0 +1,23 @@
+package pk.training.basit.polarbookshop.catalogservice.r2dbc.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read-only view of the book table for the reactive read path. Books are written through the JPA Book entity only,
+ * so this record maps just the columns exposed by BookDTO, and none of the auditing ones.
+ */
+@Table("book")
+public record BookReadModel(
+
+        @Id
+        Long id,
+
+        String isbn,
+        String title,
+        String author,
+        Double price,
+        String publisher,
+        int version
+) {
+}
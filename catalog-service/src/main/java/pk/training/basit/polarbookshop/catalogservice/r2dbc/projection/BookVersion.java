@@ -0,0 +1,11 @@
+package pk.training.basit.polarbookshop.catalogservice.r2dbc.projection;
+
+/**
+ * The identity and optimistic locking version of a book, which are all that is needed to tell whether a client
+ * holds its latest representation.
+ */
+public record BookVersion(
+        Long id,
+        int version
+) {
+}
@@ -0,0 +1,21 @@
+package pk.training.basit.polarbookshop.catalogservice.r2dbc.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.projection.BookVersion;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.entity.BookReadModel;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the read methods of BookRepository, used by GET /books and GET /books/{isbn}. Being an
+ * R2dbcRepository, it's only picked up by Spring Data R2DBC, while BookRepository stays with Spring Data JPA.
+ */
+public interface BookReadRepository extends R2dbcRepository<BookReadModel, Long>, BookReadSliceRepository {
+
+    Mono<BookReadModel> findByIsbn(String isbn);
+
+    // Reads only the id and version columns, to answer conditional requests without loading the book
+    @Query("SELECT id, version FROM book WHERE isbn = :isbn")
+    Mono<BookVersion> findVersionByIsbn(String isbn);
+
+}
@@ -0,0 +1,19 @@
+package pk.training.basit.polarbookshop.catalogservice.r2dbc.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.entity.BookReadModel;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment, implemented by BookReadSliceRepositoryImpl and mixed into BookReadRepository.
+ */
+public interface BookReadSliceRepository {
+
+    /**
+     * Returns the requested page of books, without the total number of books. One extra row is fetched to find out
+     * whether a next slice exists, so no count query is needed.
+     */
+    Mono<Slice<BookReadModel>> findSliceBy(Pageable pageable);
+
+}
@@ -0,0 +1,37 @@
+package pk.training.basit.polarbookshop.catalogservice.r2dbc.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.entity.BookReadModel;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public class BookReadSliceRepositoryImpl implements BookReadSliceRepository {
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    public BookReadSliceRepositoryImpl(R2dbcEntityTemplate r2dbcEntityTemplate) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+    }
+
+    @Override
+    public Mono<Slice<BookReadModel>> findSliceBy(Pageable pageable) {
+        Query query = Query.empty()
+                .sort(pageable.getSort())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1);
+
+        return r2dbcEntityTemplate.select(query, BookReadModel.class)
+                .collectList()
+                .map(books -> {
+                    boolean hasNext = books.size() > pageable.getPageSize();
+                    List<BookReadModel> content = hasNext ? books.subList(0, pageable.getPageSize()) : books;
+                    return new SliceImpl<>(content, pageable, hasNext);
+                });
+    }
+
+}
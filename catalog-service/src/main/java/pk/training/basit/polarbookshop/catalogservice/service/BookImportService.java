@@ -0,0 +1,11 @@
+package pk.training.basit.polarbookshop.catalogservice.service;
+
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookImportResponse;
+
+import java.util.Iterator;
+
+public interface BookImportService {
+
+    BookImportResponse importBooks(Iterator<BookDTO> books);
+}
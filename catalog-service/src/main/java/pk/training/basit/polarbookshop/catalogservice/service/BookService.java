@@ -2,8 +2,13 @@ package pk.training.basit.polarbookshop.catalogservice.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
 import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookLookupResponse;
 
 import java.util.Collection;
 
@@ -11,8 +16,11 @@ public interface BookService {
 
     Page<Book> getAllBooks(Pageable pageable);
     Page<BookDTO> viewBookList(Pageable pageable);
+    Slice<BookDTO> viewBookSlice(Pageable pageable);
+    Window<BookDTO> viewBookWindow(ScrollPosition position, Sort sort, int size);
     Book findByIsbn(String isbn);
     BookDTO viewBookDetails(String isbn);
+    BookLookupResponse viewBooksDetails(Collection<String> isbns);
     Book saveBook(Book book);
     Book addNewBook(Book book);
     BookDTO addBookToCatalog(BookDTO bookDto);
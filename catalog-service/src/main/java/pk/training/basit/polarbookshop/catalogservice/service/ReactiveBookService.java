@@ -0,0 +1,19 @@
+package pk.training.basit.polarbookshop.catalogservice.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.projection.BookVersion;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read operations of the catalog, backed by R2DBC. The write operations stay in BookService.
+ */
+public interface ReactiveBookService {
+
+    Mono<Page<BookDTO>> viewBookList(Pageable pageable);
+    Mono<Slice<BookDTO>> viewBookSlice(Pageable pageable);
+    Mono<BookDTO> viewBookDetails(String isbn);
+    Mono<BookVersion> viewBookVersion(String isbn);
+}
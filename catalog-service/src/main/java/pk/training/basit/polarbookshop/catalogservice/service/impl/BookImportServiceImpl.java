@@ -0,0 +1,152 @@
+package pk.training.basit.polarbookshop.catalogservice.service.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pk.training.basit.polarbookshop.catalogservice.config.CacheConfiguration;
+import pk.training.basit.polarbookshop.catalogservice.enums.BookImportStatus;
+import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
+import pk.training.basit.polarbookshop.catalogservice.jpa.repository.BookRepository;
+import pk.training.basit.polarbookshop.catalogservice.mapper.BookMapper;
+import pk.training.basit.polarbookshop.catalogservice.service.BookImportService;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookImportResponse;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookImportResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports books read one at a time from a streamed request body. Books are processed in chunks: every chunk is
+ * validated, checked for existing ISBNs with a single IN query and inserted in its own transaction, so Hibernate
+ * flushes it as JDBC batches and the persistence context is released before the next chunk is read.
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // A multiple of hibernate.jdbc.batch_size, so every chunk is flushed in full batches
+    static final int CHUNK_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookImportServiceImpl(BookRepository bookRepository, Validator validator,
+                                 PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Books are only added, never updated, so the count is the only cache entry that can become stale.
+     */
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.BOOK_COUNT_CACHE, allEntries = true)
+    public BookImportResponse importBooks(Iterator<BookDTO> books) {
+        LOGGER.info("importBooks() starts");
+        List<BookImportResult> results = new ArrayList<>();
+
+        // ISBNs already accepted by this import, to reject duplicates within the request itself
+        Set<String> importedIsbns = new HashSet<>();
+        Map<Integer, BookDTO> chunk = new LinkedHashMap<>();
+        int row = 0;
+        while (true) {
+            BookDTO bookDto;
+            try {
+                if (!books.hasNext()) {
+                    break;
+                }
+                bookDto = books.next();
+            } catch (RuntimeException ex) {
+                // The body can't be parsed past this point, the rows read so far are still imported
+                results.add(BookImportResult.rejected(row + 1, null, BookImportStatus.INVALID,
+                        "Malformed book: " + ex.getMessage()));
+                break;
+            }
+
+            row++;
+            String violations = validate(bookDto);
+            if (violations != null) {
+                results.add(BookImportResult.rejected(row, bookDto.isbn(), BookImportStatus.INVALID, violations));
+            } else if (!importedIsbns.add(bookDto.isbn())) {
+                results.add(BookImportResult.rejected(row, bookDto.isbn(), BookImportStatus.DUPLICATE,
+                        "The book with ISBN " + bookDto.isbn() + " appears more than once in the request."));
+            } else {
+                chunk.put(row, bookDto);
+                if (chunk.size() == CHUNK_SIZE) {
+                    results.addAll(importChunk(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk));
+        }
+
+        results.sort((first, second) -> Integer.compare(first.row(), second.row()));
+        BookImportResponse response = BookImportResponse.of(results);
+        LOGGER.info("importBooks() ends, {} books received and {} created", response.received(), response.created());
+        return response;
+    }
+
+    private List<BookImportResult> importChunk(Map<Integer, BookDTO> chunk) {
+        Set<String> isbns = chunk.values().stream()
+                .map(BookDTO::isbn)
+                .collect(Collectors.toSet());
+
+        try {
+            return transactionTemplate.execute(status -> {
+                Set<String> existingIsbns = new HashSet<>(bookRepository.findExistingIsbns(isbns));
+                List<BookImportResult> chunkResults = new ArrayList<>(chunk.size());
+                List<Book> newBooks = new ArrayList<>(chunk.size());
+                chunk.forEach((row, bookDto) -> {
+                    if (existingIsbns.contains(bookDto.isbn())) {
+                        chunkResults.add(BookImportResult.rejected(row, bookDto.isbn(), BookImportStatus.DUPLICATE,
+                                "A book with ISBN " + bookDto.isbn() + " already exists."));
+                    } else {
+                        newBooks.add(BookMapper.bookDtoToBookMapper.apply(bookDto));
+                        chunkResults.add(BookImportResult.created(row, bookDto.isbn()));
+                    }
+                });
+
+                bookRepository.saveAll(newBooks);
+                return chunkResults;
+            });
+        } catch (DataAccessException ex) {
+            // Typically a book inserted concurrently by another request. The whole chunk is rolled back.
+            LOGGER.warn("Unable to import a chunk of {} books", chunk.size(), ex);
+            List<BookImportResult> failedResults = new ArrayList<>(chunk.size());
+            chunk.forEach((row, bookDto) -> failedResults.add(BookImportResult.rejected(row, bookDto.isbn(),
+                    BookImportStatus.FAILED, "The chunk holding this book could not be saved.")));
+            return failedResults;
+        }
+    }
+
+    private String validate(BookDTO bookDto) {
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(bookDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+}
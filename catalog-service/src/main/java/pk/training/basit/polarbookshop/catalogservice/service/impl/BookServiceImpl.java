@@ -1,24 +1,51 @@
 package pk.training.basit.polarbookshop.catalogservice.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import pk.training.basit.polarbookshop.catalogservice.config.CacheConfiguration;
+import pk.training.basit.polarbookshop.catalogservice.config.MetricsConfiguration;
 import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
 import pk.training.basit.polarbookshop.catalogservice.exception.BookAlreadyExistsException;
 import pk.training.basit.polarbookshop.catalogservice.exception.BookNotFoundException;
+import pk.training.basit.polarbookshop.catalogservice.exception.TooManyIsbnsException;
 import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
 import pk.training.basit.polarbookshop.catalogservice.jpa.repository.BookRepository;
 import pk.training.basit.polarbookshop.catalogservice.mapper.BookMapper;
 import pk.training.basit.polarbookshop.catalogservice.service.BookService;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookLookupResponse;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 // Stereotype annotation that marks a class to be a service managed by Spring
 @Service
+// Every public method is timed, a cache hit included, as a call from the controllers goes through the proxy
+@Timed(value = MetricsConfiguration.BOOK_SERVICE_TIMER, description = "Calls to the book service, by method")
 public class BookServiceImpl implements BookService {
 
     private static final Logger LOGGER = LogManager.getLogger();
 
+    // Upper bound of the ISBNs resolved by a single batch lookup, the same as the maximum page size
+    public static final int MAX_LOOKUP_SIZE = 50;
+
     private final BookRepository bookRepository;
 
     // BookRepository is provided through constructor auto-wiring.
@@ -31,16 +58,39 @@ public class BookServiceImpl implements BookService {
         return bookRepository.findAll(pageable);
     }
 
+    /**
+     * The page content is fetched as a slice and the total comes from the cached count. PageableExecutionUtils
+     * doesn't even look the count up when it can be derived from the content, as on a partial first page.
+     */
     @Override
     public Page<BookDTO> viewBookList(Pageable pageable) {
         LOGGER.info("viewBookList() starts for {}", pageable.getSort());
-        Page<Book> books = getAllBooks(pageable);
-        Page<BookDTO> pagedBooksDto = books
-                .map(book -> BookMapper.bookToBookDtoMapper.apply(book));
+        Slice<BookDTO> books = viewBookSlice(pageable);
+        Page<BookDTO> pagedBooksDto = PageableExecutionUtils.getPage(books.getContent(), pageable, bookRepository::count);
         LOGGER.info("viewBookList() ends for {}", pageable.getSort());
         return pagedBooksDto;
     }
 
+    @Override
+    public Slice<BookDTO> viewBookSlice(Pageable pageable) {
+        Slice<Book> books = bookRepository.findAllBy(pageable);
+        return books.map(book -> BookMapper.bookToBookDtoMapper.apply(book));
+    }
+
+    /**
+     * Seeks on the sort key values held by the scroll position instead of using LIMIT/OFFSET, and fetches one
+     * extra row to find out whether a next window exists, so no count query is executed.
+     */
+    @Override
+    public Window<BookDTO> viewBookWindow(ScrollPosition position, Sort sort, int size) {
+        LOGGER.info("viewBookWindow() starts for {}", sort);
+        Window<Book> books = bookRepository.findBy(Specification.where(null),
+                query -> query.sortBy(sort).limit(size).scroll(position));
+        Window<BookDTO> windowBooksDto = books.map(BookMapper.bookToBookDtoMapper);
+        LOGGER.info("viewBookWindow() ends for {}", sort);
+        return windowBooksDto;
+    }
+
     @Override
     public Book findByIsbn(String isbn) {
         // When trying to view a book that doesn’t exist, a dedicated exception is thrown.
@@ -48,7 +98,12 @@ public class BookServiceImpl implements BookService {
                 .orElseThrow(() -> new BookNotFoundException(isbn));
     }
 
+    /**
+     * Read-through cache in front of the repository. Only found books are cached, a BookNotFoundException
+     * propagates without populating the cache.
+     */
     @Override
+    @Cacheable(cacheNames = CacheConfiguration.BOOKS_CACHE, key = "#isbn")
     public BookDTO viewBookDetails(String isbn) {
         LOGGER.info("viewBookDetails() starts for book {}", isbn);
         Book book = findByIsbn(isbn);
@@ -57,6 +112,31 @@ public class BookServiceImpl implements BookService {
         return bookDto;
     }
 
+    /**
+     * Resolves all the ISBNs with a single WHERE isbn IN (...) query. Duplicated ISBNs are looked up once.
+     */
+    @Override
+    public BookLookupResponse viewBooksDetails(Collection<String> isbns) {
+        Set<String> requestedIsbns = new LinkedHashSet<>(isbns);
+        if (requestedIsbns.size() > MAX_LOOKUP_SIZE) {
+            throw new TooManyIsbnsException(requestedIsbns.size(), MAX_LOOKUP_SIZE);
+        }
+
+        LOGGER.info("viewBooksDetails() starts for {} books", requestedIsbns.size());
+        Map<String, Book> booksByIsbn = bookRepository.findByIsbnIn(requestedIsbns).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Function.identity()));
+
+        List<BookDTO> books = requestedIsbns.stream()
+                .filter(booksByIsbn::containsKey)
+                .map(isbn -> BookMapper.bookToBookDtoMapper.apply(booksByIsbn.get(isbn)))
+                .toList();
+        List<String> missingIsbns = requestedIsbns.stream()
+                .filter(isbn -> !booksByIsbn.containsKey(isbn))
+                .toList();
+        LOGGER.info("viewBooksDetails() ends, {} books found and {} missing", books.size(), missingIsbns.size());
+        return new BookLookupResponse(books, missingIsbns);
+    }
+
     @Override
     public Book saveBook(Book book) {
         return bookRepository.save(book);
@@ -74,6 +154,10 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.BOOKS_CACHE, key = "#bookDto.isbn()"),
+            @CacheEvict(cacheNames = CacheConfiguration.BOOK_COUNT_CACHE, allEntries = true)
+    })
     public BookDTO addBookToCatalog(BookDTO bookDto) {
         LOGGER.info("addBookToCatalog() starts for book {}", bookDto.isbn());
 
@@ -85,13 +169,26 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.BOOKS_CACHE, key = "#isbn"),
+            @CacheEvict(cacheNames = CacheConfiguration.BOOK_COUNT_CACHE, allEntries = true)
+    })
     public void removeBookFromCatalog(String isbn) {
         LOGGER.info("removeBookFromCatalog() starts for book {}", isbn);
         bookRepository.deleteByIsbn(isbn);
         LOGGER.info("removeBookFromCatalog() ends for book {}", isbn);
     }
 
+    /**
+     * Evicts both the path ISBN and the body ISBN, and the count since a missing book gets created. In that case
+     * addBookToCatalog() is invoked on this instance, bypassing the proxy and so its own eviction.
+     */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.BOOKS_CACHE, key = "#isbn"),
+            @CacheEvict(cacheNames = CacheConfiguration.BOOKS_CACHE, key = "#bookDto.isbn()"),
+            @CacheEvict(cacheNames = CacheConfiguration.BOOK_COUNT_CACHE, allEntries = true)
+    })
     public BookDTO editBookDetails(String isbn, BookDTO bookDto) {
         LOGGER.info("editBookDetails() starts for book {}", isbn);
         /**
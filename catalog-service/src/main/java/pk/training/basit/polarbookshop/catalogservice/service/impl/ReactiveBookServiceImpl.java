@@ -0,0 +1,143 @@
+package pk.training.basit.polarbookshop.catalogservice.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import pk.training.basit.polarbookshop.catalogservice.config.CacheConfiguration;
+import pk.training.basit.polarbookshop.catalogservice.config.MetricsConfiguration;
+import pk.training.basit.polarbookshop.catalogservice.exception.BookNotFoundException;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.projection.BookVersion;
+import pk.training.basit.polarbookshop.catalogservice.mapper.BookMapper;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.repository.BookReadRepository;
+import pk.training.basit.polarbookshop.catalogservice.service.ReactiveBookService;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shares the books and bookCount caches with BookServiceImpl, so the evictions done by the JPA write path apply to
+ * the reactive read path too. The caches are in memory, so reading and populating them doesn't block. They are used
+ * directly since @Cacheable doesn't support reactive return types in this version of Spring.
+ *
+ * For the same reason @Timed isn't used either: the methods are timed until the returned Mono completes, under the
+ * timer and tags TimedAspect gives to the methods of BookServiceImpl.
+ */
+@Service
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final BookReadRepository bookReadRepository;
+    private final Cache booksCache;
+    private final Cache bookCountCache;
+    private final MeterRegistry meterRegistry;
+
+    public ReactiveBookServiceImpl(BookReadRepository bookReadRepository, CacheManager cacheManager,
+            MeterRegistry meterRegistry) {
+        this.bookReadRepository = bookReadRepository;
+        this.booksCache = cacheManager.getCache(CacheConfiguration.BOOKS_CACHE);
+        this.bookCountCache = cacheManager.getCache(CacheConfiguration.BOOK_COUNT_CACHE);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Same logic as PageableExecutionUtils.getPage() in BookServiceImpl: the count is only looked up, from the cache
+     * first, when the total can't be told from the slice itself.
+     */
+    @Override
+    public Mono<Page<BookDTO>> viewBookList(Pageable pageable) {
+        LOGGER.info("viewBookList() starts for {}", pageable.getSort());
+        Mono<Page<BookDTO>> bookPage = findBookSlice(pageable)
+                .<Page<BookDTO>>flatMap(books -> {
+                    if (!books.hasNext() && (pageable.getOffset() == 0 || books.hasContent())) {
+                        long total = pageable.getOffset() + books.getNumberOfElements();
+                        return Mono.just(new PageImpl<>(books.getContent(), pageable, total));
+                    }
+                    return countBooks().map(total -> new PageImpl<>(books.getContent(), pageable, total));
+                })
+                .doOnSuccess(books -> LOGGER.info("viewBookList() ends for {}", pageable.getSort()));
+        return timed("viewBookList", bookPage);
+    }
+
+    @Override
+    public Mono<Slice<BookDTO>> viewBookSlice(Pageable pageable) {
+        return timed("viewBookSlice", findBookSlice(pageable));
+    }
+
+    /**
+     * Read-through cache in front of the repository, like BookServiceImpl.viewBookDetails(). Only found books are
+     * cached.
+     */
+    @Override
+    public Mono<BookDTO> viewBookDetails(String isbn) {
+        return timed("viewBookDetails", Mono.defer(() -> {
+            BookDTO cachedBook = booksCache.get(isbn, BookDTO.class);
+            if (cachedBook != null) {
+                return Mono.just(cachedBook);
+            }
+            LOGGER.info("viewBookDetails() starts for book {}", isbn);
+            return bookReadRepository.findByIsbn(isbn)
+                    .map(BookMapper.bookReadModelToBookDtoMapper)
+                    .doOnNext(bookDto -> {
+                        booksCache.put(isbn, bookDto);
+                        LOGGER.info("viewBookDetails() ends for book {}", isbn);
+                    })
+                    // When trying to view a book that doesn’t exist, a dedicated exception is thrown.
+                    .switchIfEmpty(Mono.error(() -> new BookNotFoundException(isbn)));
+        }));
+    }
+
+    /**
+     * Used to validate the ETag sent by a client, so only the id and version of the book are read.
+     */
+    @Override
+    public Mono<BookVersion> viewBookVersion(String isbn) {
+        return timed("viewBookVersion", bookReadRepository.findVersionByIsbn(isbn)
+                .switchIfEmpty(Mono.error(() -> new BookNotFoundException(isbn))));
+    }
+
+    private Mono<Slice<BookDTO>> findBookSlice(Pageable pageable) {
+        return bookReadRepository.findSliceBy(pageable)
+                .map(books -> books.map(BookMapper.bookReadModelToBookDtoMapper));
+    }
+
+    // The key of the bookCount cache is the one @Cacheable gives to BookRepository.count(), which has no parameters
+    private Mono<Long> countBooks() {
+        return Mono.defer(() -> {
+            Long cachedCount = bookCountCache.get(SimpleKey.EMPTY, Long.class);
+            if (cachedCount != null) {
+                return Mono.just(cachedCount);
+            }
+            return bookReadRepository.count()
+                    .doOnNext(count -> bookCountCache.put(SimpleKey.EMPTY, count));
+        });
+    }
+
+    // Same tags as TimedAspect, exception being the simple name of the exception thrown or none
+    private <T> Mono<T> timed(String method, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono
+                    .doOnSuccess(result -> sample.stop(bookServiceTimer(method, "none")))
+                    .doOnError(exception -> sample.stop(bookServiceTimer(method, exception.getClass().getSimpleName())));
+        });
+    }
+
+    private Timer bookServiceTimer(String method, String exception) {
+        return Timer.builder(MetricsConfiguration.BOOK_SERVICE_TIMER)
+                .description("Calls to the book service, by method")
+                .tag("class", ReactiveBookServiceImpl.class.getName())
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+
+}
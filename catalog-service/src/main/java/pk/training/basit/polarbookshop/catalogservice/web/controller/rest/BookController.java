@@ -1,15 +1,29 @@
 package pk.training.basit.polarbookshop.catalogservice.web.controller.rest;
 
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pk.training.basit.polarbookshop.catalogservice.service.BookService;
+import pk.training.basit.polarbookshop.catalogservice.service.ReactiveBookService;
 import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookLookupResponse;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.CursorPagedResponse;
 import pk.training.basit.polarbookshop.catalogservice.web.dto.PagedResponse;
+import pk.training.basit.polarbookshop.catalogservice.web.etag.ETags;
+import pk.training.basit.polarbookshop.catalogservice.web.pagination.ContinuationToken;
+import pk.training.basit.polarbookshop.catalogservice.web.request.BookLookupRequest;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 // Stereotype annotation marking a class as a Spring component and a source of handlers for REST
 //endpoints
@@ -20,26 +34,93 @@ import pk.training.basit.polarbookshop.catalogservice.web.dto.PagedResponse;
 public class BookController {
 
     private final BookService bookService;
+    private final ReactiveBookService reactiveBookService;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, ReactiveBookService reactiveBookService) {
         this.bookService = bookService;
+        this.reactiveBookService = reactiveBookService;
     }
 
     /**
-     * Maps HTTP GET requests to the specific handler method
+     * Maps HTTP GET requests to the specific handler method. Clients that don't need totalElements and
+     * totalPages can pass count=false to get a slice, which only tells whether a next page exists.
+     *
+     * The response carries an ETag computed from the books of the page. When it matches the If-None-Match header
+     * of the request, Spring MVC answers 304 Not Modified and the page is not serialized.
+     *
+     * The books are read with R2DBC. Returning a Mono makes Spring MVC process the request asynchronously: the
+     * Tomcat thread is released while the query runs, and the response is written once the Mono completes.
      */
     @GetMapping
-    public PagedResponse get(@SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
-        Page<BookDTO> pagedBooksDto = bookService.viewBookList(pageable);
-        return PagedResponse.builder(pagedBooksDto).build();
+    public Mono<ResponseEntity<PagedResponse>> get(@RequestParam(defaultValue = "true") boolean count,
+                                                   @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        Mono<? extends Slice<BookDTO>> slicedBooksDto = count
+                ? reactiveBookService.viewBookList(pageable)
+                : reactiveBookService.viewBookSlice(pageable);
+        return slicedBooksDto.map(books -> {
+            PagedResponse pagedResponse = PagedResponse.builder(books).build();
+            String eTag = ETags.ofPage(books.getContent(), pageable, pagedResponse.totalElements(),
+                    pagedResponse.hasNext());
+            return ResponseEntity.ok().eTag(eTag).body(pagedResponse);
+        });
+    }
+
+    /**
+     * Cursor-based variant of the GET handler, selected when the cursor parameter is present without the isbn one,
+     * which selects the batch lookup instead. An empty cursor returns the first window, and every response carries
+     * the cursor of the next one. The page number of the pageable is ignored, only its size and sort are used.
+     */
+    @GetMapping(params = {"cursor", "!isbn"})
+    public ResponseEntity<CursorPagedResponse> getWindow(@RequestParam String cursor,
+                                                        @SortDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        ScrollPosition position = ContinuationToken.decode(cursor, pageable.getSort());
+        Window<BookDTO> windowBooksDto = bookService.viewBookWindow(position, pageable.getSort(), pageable.getPageSize());
+        CursorPagedResponse cursorPagedResponse = CursorPagedResponse.builder(windowBooksDto).build();
+        String eTag = ETags.ofPage(windowBooksDto.getContent(), cursor, pageable.getSort(), cursorPagedResponse.nextCursor());
+        return ResponseEntity.ok().eTag(eTag).body(cursorPagedResponse);
+    }
+
+    /**
+     * Batch lookup selected when the isbn parameter is present, as in /books?isbn=a,b,c. Books are resolved with
+     * a single query and the ISBNs not in the catalog are returned alongside them.
+     */
+    @GetMapping(params = "isbn")
+    public BookLookupResponse getByIsbns(@RequestParam("isbn") List<String> isbns) {
+        return bookService.viewBooksDetails(isbns);
+    }
+
+    /**
+     * Same as the batch lookup above, for clients that prefer to send the ISBNs in the request body.
+     */
+    @PostMapping("lookup")
+    public BookLookupResponse lookup(@Valid @RequestBody BookLookupRequest bookLookupRequest) {
+        return bookService.viewBooksDetails(bookLookupRequest.isbns());
     }
 
     /**
      * A URI template variable appended to the root path mapping URI ("/books/{isbn}")
+     *
+     * The ETag of a book is derived from its version. A conditional request is first checked against the version
+     * alone, read without loading the book, and answered with 304 Not Modified when the client is up to date.
      */
     @GetMapping("{isbn}")
-    public BookDTO getByIsbn(@PathVariable String isbn) { // @PathVariable binds a method parameter to a URI template variable ({isbn}).
-        return bookService.viewBookDetails(isbn);
+    public Mono<ResponseEntity<BookDTO>> getByIsbn(@PathVariable String isbn, // @PathVariable binds a method parameter to a URI template variable ({isbn}).
+                                                   @RequestHeader HttpHeaders headers) {
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        Mono<ResponseEntity<BookDTO>> book = Mono.defer(() -> reactiveBookService.viewBookDetails(isbn))
+                .map(bookDto -> ResponseEntity.ok().eTag(ETags.ofBook(bookDto)).body(bookDto));
+        if (ifNoneMatch.isEmpty()) {
+            return book;
+        }
+
+        return reactiveBookService.viewBookVersion(isbn)
+                .flatMap(bookVersion -> {
+                    String eTag = ETags.ofBook(bookVersion.id(), bookVersion.version());
+                    if (ETags.matches(ifNoneMatch, eTag)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<BookDTO>build());
+                    }
+                    return book;
+                });
     }
 
     /**
@@ -0,0 +1,40 @@
+package pk.training.basit.polarbookshop.catalogservice.web.controller.rest;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pk.training.basit.polarbookshop.catalogservice.service.BookImportService;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("books")
+public class BookImportController {
+
+    private final BookImportService bookImportService;
+    private final ObjectMapper objectMapper;
+
+    public BookImportController(BookImportService bookImportService, ObjectMapper objectMapper) {
+        this.bookImportService = bookImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports a JSON array or a stream of newline-delimited JSON books. The body is bound as a raw InputStream
+     * rather than with @RequestBody, so books are parsed one at a time while they are imported instead of the
+     * whole list being buffered in memory. A JSON array at the root is unwrapped by the MappingIterator.
+     */
+    @PostMapping(value = "bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BookImportResponse postBulk(InputStream body) throws IOException {
+        try (MappingIterator<BookDTO> books = objectMapper.readerFor(BookDTO.class).readValues(body)) {
+            return bookImportService.importBooks(books);
+        }
+    }
+
+}
@@ -8,6 +8,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import pk.training.basit.polarbookshop.catalogservice.exception.BookAlreadyExistsException;
 import pk.training.basit.polarbookshop.catalogservice.exception.BookNotFoundException;
+import pk.training.basit.polarbookshop.catalogservice.exception.InvalidCursorException;
+import pk.training.basit.polarbookshop.catalogservice.exception.TooManyIsbnsException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -37,6 +39,18 @@ public class BookControllerAdvice {
         return ex.getMessage();
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    String invalidCursorHandler(InvalidCursorException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(TooManyIsbnsException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    String tooManyIsbnsHandler(TooManyIsbnsException ex) {
+        return ex.getMessage();
+    }
+
     // Handles the exception thrown when the Book validation fails
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -0,0 +1,20 @@
+package pk.training.basit.polarbookshop.catalogservice.web.dto;
+
+import pk.training.basit.polarbookshop.catalogservice.enums.BookImportStatus;
+
+import java.util.List;
+
+public record BookImportResponse(
+        int received,
+        long created,
+        long rejected,
+        List<BookImportResult> results
+) {
+
+    public static BookImportResponse of(List<BookImportResult> results) {
+        long created = results.stream()
+                .filter(result -> result.status() == BookImportStatus.CREATED)
+                .count();
+        return new BookImportResponse(results.size(), created, results.size() - created, results);
+    }
+}
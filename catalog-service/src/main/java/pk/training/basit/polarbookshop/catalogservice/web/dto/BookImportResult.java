@@ -0,0 +1,20 @@
+package pk.training.basit.polarbookshop.catalogservice.web.dto;
+
+import pk.training.basit.polarbookshop.catalogservice.enums.BookImportStatus;
+
+// Outcome of a single row of a bulk import. The row is the 1-based position of the book in the request body.
+public record BookImportResult(
+        int row,
+        String isbn,
+        BookImportStatus status,
+        String message
+) {
+
+    public static BookImportResult created(int row, String isbn) {
+        return new BookImportResult(row, isbn, BookImportStatus.CREATED, null);
+    }
+
+    public static BookImportResult rejected(int row, String isbn, BookImportStatus status, String message) {
+        return new BookImportResult(row, isbn, status, message);
+    }
+}
@@ -0,0 +1,9 @@
+package pk.training.basit.polarbookshop.catalogservice.web.dto;
+
+import java.util.List;
+
+// The books found for a batch lookup, in the order of the request, and the ISBNs not in the catalog
+public record BookLookupResponse(
+        List<BookDTO> books,
+        List<String> missingIsbns
+) {}
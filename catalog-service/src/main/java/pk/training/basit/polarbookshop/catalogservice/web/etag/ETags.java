@@ -0,0 +1,61 @@
+package pk.training.basit.polarbookshop.catalogservice.web.etag;
+
+import org.springframework.util.DigestUtils;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Entity tags of the book representations, derived from the JPA version of the books instead of hashing the
+ * serialized body, so they can be computed before any serialization happens.
+ *
+ * A book is tagged with a strong ETag made of its id and version: the version changes on every update, and the id
+ * on a book deleted and added again. A page is tagged with a weak ETag hashing the ids and versions of its books
+ * together with the page metadata, since the totals come from a count that is cached separately.
+ */
+public final class ETags {
+
+    private static final String WILDCARD = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    public static String ofBook(Long id, int version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    public static String ofBook(BookDTO book) {
+        return ofBook(book.id(), book.version());
+    }
+
+    /**
+     * Returns the ETag of a page of books. The page metadata, such as its number, totals or next cursor, is part of
+     * the tag so that a page only matches when the whole response would be the same.
+     */
+    public static String ofPage(List<BookDTO> books, Object... pageMetadata) {
+        StringBuilder content = new StringBuilder();
+        books.forEach(book -> content.append(book.id()).append('-').append(book.version()).append(','));
+        for (Object metadata : pageMetadata) {
+            content.append('|').append(metadata);
+        }
+        return WEAK_PREFIX + "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Tells whether one of the If-None-Match values matches the ETag. As required for GET requests, the weak
+     * comparison is used, ignoring the W/ prefix on both sides.
+     */
+    public static boolean matches(Collection<String> ifNoneMatch, String eTag) {
+        String opaqueTag = stripWeakPrefix(eTag);
+        return ifNoneMatch.stream()
+                .anyMatch(candidate -> candidate.equals(WILDCARD) || stripWeakPrefix(candidate).equals(opaqueTag));
+    }
+
+    private static String stripWeakPrefix(String eTag) {
+        return eTag.startsWith(WEAK_PREFIX) ? eTag.substring(WEAK_PREFIX.length()) : eTag;
+    }
+
+}
@@ -0,0 +1,101 @@
+package pk.training.basit.polarbookshop.catalogservice.web.pagination;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+import pk.training.basit.polarbookshop.catalogservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Converts a keyset scroll position into an opaque continuation token and back.
+ *
+ * The token is the Base64 (URL safe) encoding of the JSON map holding the sort key values of the last book of the
+ * previous window. Seeking on those values, instead of skipping OFFSET rows, keeps the cost of a page constant
+ * at any depth. Only non-nullable columns can be used as sort keys, because rows holding NULL keys would be
+ * skipped by the keyset predicate.
+ */
+public final class ContinuationToken {
+
+    // The sortable Book properties and their Java types, used to restore the key values from JSON
+    private static final Map<String, Class<?>> SORTABLE_PROPERTIES = Map.of(
+            "id", Long.class,
+            "isbn", String.class,
+            "title", String.class,
+            "author", String.class,
+            "price", Double.class
+    );
+
+    private static final String ID_PROPERTY = "id";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private ContinuationToken() {
+
+    }
+
+    /**
+     * Returns the token pointing after the given position, or null when the position is not a keyset position.
+     */
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keysetPosition) || keysetPosition.isInitial()) {
+            return null;
+        }
+
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsBytes(keysetPosition.getKeys());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to encode the scroll position " + position, ex);
+        }
+    }
+
+    /**
+     * Returns the keyset position encoded in the token. An empty token denotes the first window.
+     */
+    public static KeysetScrollPosition decode(String token, Sort sort) {
+        validateSort(sort);
+        if (!StringUtils.hasText(token)) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token);
+            keys = OBJECT_MAPPER.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() {});
+        } catch (Exception ex) {
+            throw new InvalidCursorException("The cursor " + token + " is not valid.", ex);
+        }
+
+        // Spring Data appends the identifier to the sort so that the keyset is unique
+        Set<String> expectedKeys = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+        expectedKeys.add(ID_PROPERTY);
+        if (!keys.keySet().equals(expectedKeys)) {
+            throw new InvalidCursorException("The cursor " + token + " was not issued for the sort " + sort + ".");
+        }
+
+        Map<String, Object> typedKeys = new LinkedHashMap<>();
+        keys.forEach((property, value) ->
+                typedKeys.put(property, OBJECT_MAPPER.convertValue(value, SORTABLE_PROPERTIES.get(property))));
+        return ScrollPosition.forward(typedKeys);
+    }
+
+    private static void validateSort(Sort sort) {
+        sort.forEach(order -> {
+            if (!SORTABLE_PROPERTIES.containsKey(order.getProperty())) {
+                throw new InvalidCursorException("The sort property " + order.getProperty()
+                        + " is not supported with a cursor. Supported properties are " + SORTABLE_PROPERTIES.keySet() + ".");
+            }
+        });
+    }
+
+}
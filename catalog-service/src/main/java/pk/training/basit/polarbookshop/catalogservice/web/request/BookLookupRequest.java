@@ -0,0 +1,12 @@
+package pk.training.basit.polarbookshop.catalogservice.web.request;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record BookLookupRequest(
+
+        @NotEmpty(message = "At least one book ISBN must be defined.")
+        List<String> isbns
+
+) {}
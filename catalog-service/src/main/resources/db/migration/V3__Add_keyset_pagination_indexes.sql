@@ -0,0 +1,5 @@
+-- Composite indexes backing the keyset (seek) pagination of the catalog. The id column is the tiebreaker
+-- appended to every sort, isbn is already covered by its unique constraint.
+CREATE INDEX book_title_id_idx ON book (title, id);
+CREATE INDEX book_author_id_idx ON book (author, id);
+CREATE INDEX book_price_id_idx ON book (price, id);
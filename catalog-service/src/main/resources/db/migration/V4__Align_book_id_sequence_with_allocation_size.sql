@@ -0,0 +1,3 @@
+-- Book ids are generated by Hibernate with a pooled optimizer reserving 20 ids per call, which requires the
+-- sequence to be incremented by the same allocation size.
+ALTER SEQUENCE book_id_seq INCREMENT BY 20;
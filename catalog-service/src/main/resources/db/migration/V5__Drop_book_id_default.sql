@@ -0,0 +1,4 @@
+-- The ids of book_id_seq are handed out by Hibernate in blocks of 20, so an insert taking its id from the column
+-- default would get one inside a block already reserved by an instance, and collide with it later. Every insert
+-- must go through the generator of the Book entity, and one without an id now fails instead.
+ALTER TABLE book ALTER COLUMN id DROP DEFAULT;
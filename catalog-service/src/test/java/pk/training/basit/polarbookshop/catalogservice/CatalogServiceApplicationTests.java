@@ -5,7 +5,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
 import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -16,8 +21,27 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 // Enables the “integration” profile to load configuration from application-integration.yml
 @ActiveProfiles("integration")
+
+// Activates automatic startup and cleanup of test containers
+@Testcontainers
 class CatalogServiceApplicationTests {
 
+	// The books are written with JDBC and read with R2DBC, which must both reach the same database
+	@Container
+	static PostgreSQLContainer<?> postgresql = new PostgreSQLContainer<>("postgres:15.3");
+
+	// Overwrites the JDBC URL of application-integration.yml, which would start a container of its own
+	@DynamicPropertySource
+	static void postgresqlProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", postgresql::getJdbcUrl);
+		registry.add("spring.datasource.username", postgresql::getUsername);
+		registry.add("spring.datasource.password", postgresql::getPassword);
+		registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgresql.getHost() + ":"
+				+ postgresql.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + postgresql.getDatabaseName());
+		registry.add("spring.r2dbc.username", postgresql::getUsername);
+		registry.add("spring.r2dbc.password", postgresql::getPassword);
+	}
+
 	// Utility to perform REST calls for testing
 	@Autowired
 	private WebTestClient webTestClient;
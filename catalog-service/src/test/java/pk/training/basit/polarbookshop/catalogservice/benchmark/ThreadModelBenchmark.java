@@ -0,0 +1,163 @@
+package pk.training.basit.polarbookshop.catalogservice.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import pk.training.basit.polarbookshop.catalogservice.CatalogServiceApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the Tomcat thread pool with virtual threads under the same load, run with ./gradlew benchmark.
+ *
+ * The application is started in each mode against a PostgreSQL test container, with the testdata profile. CLIENTS
+ * concurrent clients, four times server.tomcat.threads.max, then send a mix of book lookups and JPA reads. A lookup,
+ * GET /books/{isbn}, is served by the reactive read path from the books cache, and only needs a Tomcat thread to be
+ * dispatched. A JPA read, the first window of GET /books?cursor= or the batch lookup GET /books?isbn=, still runs
+ * on the blocking stack and needs one of the 5 connections of the Hikari pool. With the thread pool, the JPA reads
+ * blocked on the connection pool hold Tomcat threads that the lookups wait for. With virtual threads they wait on
+ * the ConnectionLimitingDataSource instead, and only they wait.
+ *
+ * The virtual threads mode is skipped when not running on JDK 21, see -PjavaVersion in build.gradle.
+ */
+@Tag("benchmark")
+class ThreadModelBenchmark {
+
+    private static final int CLIENTS = 200;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(30);
+    private static final List<String> ISBNS = List.of("1234567891", "1234567892");
+    private static final List<String> JPA_READS = List.of("/books?cursor=&size=20",
+            "/books?isbn=" + String.join(",", ISBNS));
+
+    @Test
+    void compareThreadModels() throws Exception {
+        List<String> results = new ArrayList<>();
+        try (PostgreSQLContainer<?> postgresql = new PostgreSQLContainer<>("postgres:15.3")) {
+            postgresql.start();
+            String[] databaseProperties = {
+                    "spring.datasource.url=" + postgresql.getJdbcUrl(),
+                    "spring.r2dbc.url=r2dbc:postgresql://" + postgresql.getHost() + ":"
+                            + postgresql.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + postgresql.getDatabaseName(),
+                    "spring.datasource.username=" + postgresql.getUsername(),
+                    "spring.datasource.password=" + postgresql.getPassword(),
+                    "spring.r2dbc.username=" + postgresql.getUsername(),
+                    "spring.r2dbc.password=" + postgresql.getPassword()
+            };
+
+            results.add(run(false, databaseProperties));
+            if (Runtime.version().feature() >= 21) {
+                results.add(run(true, databaseProperties));
+            } else {
+                results.add("virtual threads: skipped, running on JDK " + Runtime.version().feature());
+            }
+        }
+
+        System.out.println();
+        System.out.println("clients=" + CLIENTS + ", measured for " + MEASUREMENT.toSeconds() + "s");
+        results.forEach(System.out::println);
+    }
+
+    private String run(boolean virtualThreads, String[] databaseProperties) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CatalogServiceApplication.class)
+                .profiles("testdata")
+                .properties("server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "polar.virtual-threads.enabled=" + virtualThreads)
+                .run(Arrays.stream(databaseProperties).map(property -> "--" + property).toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            drive(httpClient, port, WARMUP, null);
+            Measurements measurements = new Measurements();
+            drive(httpClient, port, MEASUREMENT, measurements);
+            return (virtualThreads ? "virtual threads: " : "thread pool:     ") + measurements.summary(MEASUREMENT);
+        }
+    }
+
+    private static void drive(HttpClient httpClient, int port, Duration duration, Measurements measurements)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    boolean lookup = random.nextInt(10) < 8;
+                    String path = lookup
+                            ? "/books/" + ISBNS.get(random.nextInt(ISBNS.size()))
+                            : JPA_READS.get(random.nextInt(JPA_READS.size()));
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<Void> response = httpClient.send(
+                                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                                        .timeout(Duration.ofSeconds(10))
+                                        .build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        ok = response.statusCode() == 200;
+                    } catch (Exception ex) {
+                        ok = false;
+                    }
+                    if (measurements != null) {
+                        measurements.record(lookup, System.nanoTime() - start, ok);
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(duration.toSeconds() + 30, TimeUnit.SECONDS);
+    }
+
+    private static class Measurements {
+
+        private final ConcurrentLinkedQueue<Long> lookupLatencies = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Long> jpaReadLatencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(boolean lookup, long latencyNanos, boolean ok) {
+            (lookup ? lookupLatencies : jpaReadLatencies).add(latencyNanos);
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        String summary(Duration duration) {
+            long requests = lookupLatencies.size() + jpaReadLatencies.size();
+            return String.format("%8.0f req/s, errors %d, lookups %s, jpa reads %s",
+                    (double) requests / duration.toSeconds(), errors.get(),
+                    percentiles(lookupLatencies), percentiles(jpaReadLatencies));
+        }
+
+        private static String percentiles(ConcurrentLinkedQueue<Long> latencies) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            if (sorted.length == 0) {
+                return "-";
+            }
+            Arrays.sort(sorted);
+            return String.format("p50 %.1fms p99 %.1fms", millis(sorted, 0.50), millis(sorted, 0.99));
+        }
+
+        private static double millis(long[] sorted, double percentile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package pk.training.basit.polarbookshop.catalogservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionLimitingDataSourceTests {
+
+    private final DataSource targetDataSource = mock(DataSource.class);
+    private final Connection targetConnection = mock(Connection.class);
+    private final ConnectionLimitingDataSource dataSource =
+            new ConnectionLimitingDataSource(targetDataSource, 1, Duration.ofMillis(50));
+
+    @Test
+    void whenAllPermitsTakenThenGetConnectionTimesOut() throws SQLException {
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+
+        dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    void whenConnectionClosedThenPermitReleasedOnce() throws SQLException {
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        verify(targetConnection, times(1)).close();
+    }
+
+    @Test
+    void whenTargetFailsThenPermitReleased() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("Connection refused");
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+}
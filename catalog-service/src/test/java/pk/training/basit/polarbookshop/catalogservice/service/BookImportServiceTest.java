@@ -0,0 +1,82 @@
+package pk.training.basit.polarbookshop.catalogservice.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import pk.training.basit.polarbookshop.catalogservice.enums.BookImportStatus;
+import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
+import pk.training.basit.polarbookshop.catalogservice.jpa.repository.BookRepository;
+import pk.training.basit.polarbookshop.catalogservice.service.impl.BookImportServiceImpl;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookImportResponse;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookImportResult;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        bookImportService = new BookImportServiceImpl(bookRepository, validator, transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenBooksImportedThenInvalidAndDuplicateRowsRejected() {
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(List.of("1234567892"));
+
+        List<BookDTO> books = List.of(
+                createBookDto("1234567891"),
+                createBookDto("1234567892"),    // Already in the catalog
+                createBookDto("a234567893"),    // Invalid ISBN
+                createBookDto("1234567891"),    // Twice in the request
+                createBookDto("1234567894"));
+
+        BookImportResponse response = bookImportService.importBooks(books.iterator());
+
+        assertThat(response.received()).isEqualTo(5);
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.rejected()).isEqualTo(3);
+        assertThat(response.results()).extracting(BookImportResult::status).containsExactly(
+                BookImportStatus.CREATED,
+                BookImportStatus.DUPLICATE,
+                BookImportStatus.INVALID,
+                BookImportStatus.DUPLICATE,
+                BookImportStatus.CREATED);
+
+        ArgumentCaptor<Collection<Book>> savedBooks = ArgumentCaptor.forClass(Collection.class);
+        verify(bookRepository).saveAll(savedBooks.capture());
+        assertThat(savedBooks.getValue()).extracting(Book::getIsbn).containsExactly("1234567891", "1234567894");
+    }
+
+    private BookDTO createBookDto(String isbn) {
+        return BookDTO.builder(isbn)
+                .title("Title")
+                .author("Author")
+                .price(9.90)
+                .publisher("Polarsophia")
+                .build();
+    }
+
+}
@@ -0,0 +1,115 @@
+package pk.training.basit.polarbookshop.catalogservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import pk.training.basit.polarbookshop.catalogservice.config.CacheConfiguration;
+import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
+import pk.training.basit.polarbookshop.catalogservice.jpa.repository.BookRepository;
+import pk.training.basit.polarbookshop.catalogservice.service.impl.BookServiceImpl;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Loads only the caching infrastructure and BookServiceImpl, with a mocked BookRepository, to verify that the
+ * ISBN cache is read-through and that every write operation invalidates it.
+ */
+@SpringJUnitConfig({CacheConfiguration.class, BookServiceImpl.class})
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@TestPropertySource(properties = {
+        "spring.cache.type=caffeine",
+        "spring.cache.cache-names=" + CacheConfiguration.BOOKS_CACHE + "," + CacheConfiguration.BOOK_COUNT_CACHE,
+        "spring.cache.caffeine.spec=maximumSize=100,expireAfterWrite=10m,recordStats"
+})
+class BookServiceCacheTests {
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCache() {
+        cacheManager.getCache(CacheConfiguration.BOOKS_CACHE).clear();
+    }
+
+    @Test
+    void whenBookReadTwiceThenRepositoryQueriedOnce() {
+        var bookIsbn = "1234561232";
+        when(bookRepository.findByIsbn(bookIsbn)).thenReturn(Optional.of(createBook(bookIsbn, 9.90)));
+
+        BookDTO first = bookService.viewBookDetails(bookIsbn);
+        BookDTO second = bookService.viewBookDetails(bookIsbn);
+
+        assertThat(second).isEqualTo(first);
+        verify(bookRepository, times(1)).findByIsbn(bookIsbn);
+    }
+
+    @Test
+    void whenBookEditedThenCacheInvalidated() {
+        var bookIsbn = "1234561233";
+        when(bookRepository.findByIsbn(bookIsbn)).thenReturn(Optional.of(createBook(bookIsbn, 9.90)));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookService.viewBookDetails(bookIsbn);
+        bookService.editBookDetails(bookIsbn, BookDTO.builder(bookIsbn)
+                .title("Title")
+                .author("Author")
+                .price(7.95)
+                .build());
+        bookService.viewBookDetails(bookIsbn);
+
+        verify(bookRepository, times(3)).findByIsbn(bookIsbn);
+    }
+
+    @Test
+    void whenBookRemovedThenCacheInvalidated() {
+        var bookIsbn = "1234561234";
+        when(bookRepository.findByIsbn(bookIsbn)).thenReturn(Optional.of(createBook(bookIsbn, 9.90)));
+
+        bookService.viewBookDetails(bookIsbn);
+        bookService.removeBookFromCatalog(bookIsbn);
+
+        assertThat(cacheManager.getCache(CacheConfiguration.BOOKS_CACHE).get(bookIsbn)).isNull();
+    }
+
+    @Test
+    void whenBookAddedThenCacheInvalidated() {
+        var bookIsbn = "1234561235";
+        var bookDto = BookDTO.builder(bookIsbn).title("Title").author("Author").price(9.90).build();
+        cacheManager.getCache(CacheConfiguration.BOOKS_CACHE).put(bookIsbn, bookDto);
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookService.addBookToCatalog(bookDto);
+
+        assertThat(cacheManager.getCache(CacheConfiguration.BOOKS_CACHE).get(bookIsbn)).isNull();
+    }
+
+    private Book createBook(String isbn, Double price) {
+        return Book.builder(isbn)
+                .id(1L)
+                .title("Title")
+                .author("Author")
+                .price(price)
+                .publisher("Polarsophia")
+                .build();
+    }
+
+}
@@ -0,0 +1,105 @@
+package pk.training.basit.polarbookshop.catalogservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import pk.training.basit.polarbookshop.catalogservice.config.CacheConfiguration;
+import pk.training.basit.polarbookshop.catalogservice.config.MetricsConfiguration;
+import pk.training.basit.polarbookshop.catalogservice.exception.BookNotFoundException;
+import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
+import pk.training.basit.polarbookshop.catalogservice.jpa.repository.BookRepository;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.repository.BookReadRepository;
+import pk.training.basit.polarbookshop.catalogservice.service.impl.BookServiceImpl;
+import pk.training.basit.polarbookshop.catalogservice.service.impl.ReactiveBookServiceImpl;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Loads only the timed aspect and BookServiceImpl, with a mocked BookRepository, to verify that the calls to both
+ * book services are recorded under the same timer and tags.
+ */
+@SpringJUnitConfig({MetricsConfiguration.class, BookServiceImpl.class, BookServiceMetricsTests.MeterRegistryConfiguration.class})
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+class BookServiceMetricsTests {
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void whenBookViewedThenCallTimedByMethodAndException() {
+        var bookIsbn = "1234561240";
+        when(bookRepository.findByIsbn(bookIsbn)).thenReturn(Optional.of(Book.builder(bookIsbn)
+                .id(1L)
+                .title("Title")
+                .author("Author")
+                .price(9.90)
+                .build()));
+
+        bookService.viewBookDetails(bookIsbn);
+        assertThatThrownBy(() -> bookService.viewBookDetails("1234561241")).isInstanceOf(BookNotFoundException.class);
+
+        assertThat(bookServiceTimerCount(BookServiceImpl.class, "none")).isEqualTo(1);
+        assertThat(bookServiceTimerCount(BookServiceImpl.class, "BookNotFoundException")).isEqualTo(1);
+    }
+
+    @Test
+    void whenReactiveBookViewedThenTimedOnCompletion() {
+        var bookIsbn = "1234561242";
+        var bookReadRepository = mock(BookReadRepository.class);
+        when(bookReadRepository.findByIsbn(bookIsbn)).thenReturn(Mono.empty());
+        var cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.BOOKS_CACHE, CacheConfiguration.BOOK_COUNT_CACHE);
+        var reactiveBookService = new ReactiveBookServiceImpl(bookReadRepository, cacheManager, meterRegistry);
+
+        Mono<?> book = reactiveBookService.viewBookDetails(bookIsbn);
+        assertThat(meterRegistry.find(MetricsConfiguration.BOOK_SERVICE_TIMER)
+                .tag("class", ReactiveBookServiceImpl.class.getName())
+                .timer()).isNull();
+
+        StepVerifier.create(book)
+                .expectError(BookNotFoundException.class)
+                .verify();
+
+        assertThat(bookServiceTimerCount(ReactiveBookServiceImpl.class, "BookNotFoundException")).isEqualTo(1);
+    }
+
+    private long bookServiceTimerCount(Class<?> serviceClass, String exception) {
+        return meterRegistry.get(MetricsConfiguration.BOOK_SERVICE_TIMER)
+                .tag("class", serviceClass.getName())
+                .tag("method", "viewBookDetails")
+                .tag("exception", exception)
+                .timer()
+                .count();
+    }
+
+    @Configuration
+    static class MeterRegistryConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+    }
+
+}
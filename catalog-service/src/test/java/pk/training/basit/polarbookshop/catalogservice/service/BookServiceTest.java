@@ -5,15 +5,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import pk.training.basit.polarbookshop.catalogservice.jpa.entity.Book;
 import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
 import pk.training.basit.polarbookshop.catalogservice.exception.BookAlreadyExistsException;
 import pk.training.basit.polarbookshop.catalogservice.exception.BookNotFoundException;
+import pk.training.basit.polarbookshop.catalogservice.exception.TooManyIsbnsException;
 import pk.training.basit.polarbookshop.catalogservice.jpa.repository.BookRepository;
 import pk.training.basit.polarbookshop.catalogservice.service.impl.BookServiceImpl;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -65,6 +75,51 @@ class BookServiceTest {
                 .hasMessage("The book with ISBN " + bookIsbn + " was not found.");
     }
 
+    @Test
+    void whenFirstPageNotFullThenCountNotQueried() {
+        var pageable = PageRequest.of(0, 20);
+        var book = Book.builder("1234561232").id(1L).title("Title").author("Author").price(9.90).build();
+        when(bookRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(book), pageable, false));
+
+        var pagedBooksDto = bookServiceImpl.viewBookList(pageable);
+
+        assertThat(pagedBooksDto.getTotalElements()).isEqualTo(1);
+        verify(bookRepository, never()).count();
+    }
+
+    @Test
+    void whenPageFullThenCountQueried() {
+        var pageable = PageRequest.of(0, 1);
+        var book = Book.builder("1234561232").id(1L).title("Title").author("Author").price(9.90).build();
+        when(bookRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(book), pageable, true));
+        when(bookRepository.count()).thenReturn(5L);
+
+        var pagedBooksDto = bookServiceImpl.viewBookList(pageable);
+
+        assertThat(pagedBooksDto.getTotalElements()).isEqualTo(5);
+        assertThat(pagedBooksDto.getTotalPages()).isEqualTo(5);
+    }
+
+    @Test
+    void whenBooksLookedUpThenFoundAndMissingReturned() {
+        var book = Book.builder("1234561232").id(1L).title("Title").author("Author").price(9.90).build();
+        when(bookRepository.findByIsbnIn(Set.of("1234561232", "1234561233"))).thenReturn(List.of(book));
+
+        var bookLookupResponse = bookServiceImpl.viewBooksDetails(List.of("1234561233", "1234561232", "1234561233"));
+
+        assertThat(bookLookupResponse.books()).extracting(BookDTO::isbn).containsExactly("1234561232");
+        assertThat(bookLookupResponse.missingIsbns()).containsExactly("1234561233");
+    }
+
+    @Test
+    void whenTooManyBooksLookedUpThenThrows() {
+        List<String> isbns = IntStream.range(0, BookServiceImpl.MAX_LOOKUP_SIZE + 1)
+                .mapToObj(index -> String.valueOf(1234560000L + index))
+                .toList();
+        assertThatThrownBy(() -> bookServiceImpl.viewBooksDetails(isbns))
+                .isInstanceOf(TooManyIsbnsException.class);
+    }
+
     private BookDTO createBookDto(String isbn, String title, String author, Double price, String publisher) {
         return BookDTO.builder(isbn)
                 .title(title)
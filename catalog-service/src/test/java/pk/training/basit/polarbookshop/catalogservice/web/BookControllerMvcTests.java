@@ -4,13 +4,35 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.test.web.servlet.MockMvc;
 import pk.training.basit.polarbookshop.catalogservice.web.controller.rest.BookController;
 import pk.training.basit.polarbookshop.catalogservice.exception.BookNotFoundException;
+import pk.training.basit.polarbookshop.catalogservice.r2dbc.projection.BookVersion;
 import pk.training.basit.polarbookshop.catalogservice.service.BookService;
+import pk.training.basit.polarbookshop.catalogservice.service.ReactiveBookService;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.catalogservice.web.dto.BookLookupResponse;
+import pk.training.basit.polarbookshop.catalogservice.web.pagination.ContinuationToken;
 
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookController.class)
@@ -22,12 +44,128 @@ class BookControllerMvcTests {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private ReactiveBookService reactiveBookService;
+
     @Test
     void whenGetBookNotExistingThenShouldReturn404() throws Exception {
         String isbn = "73737313940";
-        given(bookService.viewBookDetails(isbn)).willThrow(BookNotFoundException.class);
+        given(reactiveBookService.viewBookDetails(isbn)).willReturn(Mono.error(new BookNotFoundException(isbn)));
         mockMvc
-                .perform(get("/books/" + isbn))
+                .perform(asyncDispatch(mockMvc.perform(get("/books/" + isbn)).andReturn()))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void whenGetBooksByIsbnsThenReturnFoundAndMissing() throws Exception {
+        var book = BookDTO.builder("1234567891").id(42L).title("Title").author("Author").price(9.90).build();
+        given(bookService.viewBooksDetails(List.of("1234567891", "1234567892")))
+                .willReturn(new BookLookupResponse(List.of(book), List.of("1234567892")));
+
+        mockMvc
+                .perform(get("/books").param("isbn", "1234567891,1234567892"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].isbn").value("1234567891"))
+                .andExpect(jsonPath("$.missingIsbns[0]").value("1234567892"));
+    }
+
+    @Test
+    void whenGetBooksByIsbnsWithCursorThenReturnFoundAndMissing() throws Exception {
+        given(bookService.viewBooksDetails(List.of("1234567892")))
+                .willReturn(new BookLookupResponse(List.of(), List.of("1234567892")));
+
+        mockMvc
+                .perform(get("/books").param("isbn", "1234567892").param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missingIsbns[0]").value("1234567892"));
+    }
+
+    @Test
+    void whenGetBooksWithoutCountThenTotalsOmitted() throws Exception {
+        var book = BookDTO.builder("1234567891").id(42L).title("Title").author("Author").price(9.90).build();
+        given(reactiveBookService.viewBookSlice(any(PageRequest.class)))
+                .willReturn(Mono.just(new SliceImpl<>(List.of(book), PageRequest.of(0, 1), true)));
+
+        mockMvc
+                .perform(asyncDispatch(mockMvc.perform(get("/books").param("count", "false")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+    }
+
+    @Test
+    void whenGetBooksWithCursorThenReturnNextCursor() throws Exception {
+        var book = BookDTO.builder("1234567891").id(42L).title("Title").author("Author").price(9.90).build();
+        Window<BookDTO> window = Window.from(List.of(book), index -> ScrollPosition.forward(Map.of("id", 42L)), true);
+        given(bookService.viewBookWindow(any(ScrollPosition.class), eq(Sort.by(Sort.Direction.DESC, "id")), eq(1)))
+                .willReturn(window);
+
+        mockMvc
+                .perform(get("/books").param("cursor", "").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(ContinuationToken.encode(ScrollPosition.forward(Map.of("id", 42L)))));
+    }
+
+    @Test
+    void whenGetBooksWithInvalidCursorThenShouldReturn400() throws Exception {
+        mockMvc
+                .perform(get("/books").param("cursor", "not a token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGetBookThenReturnETagFromVersion() throws Exception {
+        var book = BookDTO.builder("1234567891").id(42L).title("Title").author("Author").price(9.90).version(3).build();
+        given(reactiveBookService.viewBookDetails("1234567891")).willReturn(Mono.just(book));
+
+        mockMvc
+                .perform(asyncDispatch(mockMvc.perform(get("/books/1234567891")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"42-3\""));
+    }
+
+    @Test
+    void whenGetBookWithCurrentETagThenReturn304WithoutLoadingBook() throws Exception {
+        given(reactiveBookService.viewBookVersion("1234567891")).willReturn(Mono.just(new BookVersion(42L, 3)));
+
+        mockMvc
+                .perform(asyncDispatch(mockMvc.perform(get("/books/1234567891").header("If-None-Match", "\"42-3\""))
+                        .andReturn()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"42-3\""));
+        then(reactiveBookService).should(never()).viewBookDetails(any());
+    }
+
+    @Test
+    void whenGetBookWithOutdatedETagThenReturnBook() throws Exception {
+        var book = BookDTO.builder("1234567891").id(42L).title("Title").author("Author").price(9.90).version(4).build();
+        given(reactiveBookService.viewBookVersion("1234567891")).willReturn(Mono.just(new BookVersion(42L, 4)));
+        given(reactiveBookService.viewBookDetails("1234567891")).willReturn(Mono.just(book));
+
+        mockMvc
+                .perform(asyncDispatch(mockMvc.perform(get("/books/1234567891").header("If-None-Match", "\"42-3\""))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"42-4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void whenGetBooksWithCurrentETagThenReturn304() throws Exception {
+        var book = BookDTO.builder("1234567891").id(42L).title("Title").author("Author").price(9.90).build();
+        given(reactiveBookService.viewBookSlice(any(PageRequest.class)))
+                .willReturn(Mono.just(new SliceImpl<>(List.of(book), PageRequest.of(0, 1), true)));
+
+        String eTag = mockMvc
+                .perform(asyncDispatch(mockMvc.perform(get("/books").param("count", "false")).andReturn()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc
+                .perform(asyncDispatch(mockMvc.perform(get("/books").param("count", "false").header("If-None-Match", eTag))
+                        .andReturn()))
+                .andExpect(status().isNotModified());
+    }
 }
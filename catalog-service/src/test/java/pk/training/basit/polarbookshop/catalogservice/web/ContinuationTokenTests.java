@@ -0,0 +1,56 @@
+package pk.training.basit.polarbookshop.catalogservice.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import pk.training.basit.polarbookshop.catalogservice.exception.InvalidCursorException;
+import pk.training.basit.polarbookshop.catalogservice.web.pagination.ContinuationToken;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContinuationTokenTests {
+
+    @Test
+    void whenTokenEmptyThenInitialPosition() {
+        KeysetScrollPosition position = ContinuationToken.decode("", Sort.by(Sort.Direction.DESC, "id"));
+        assertThat(position.isInitial()).isTrue();
+    }
+
+    @Test
+    void whenPositionEncodedThenDecodedWithTypedKeys() {
+        var sort = Sort.by("title", "price");
+        String token = ContinuationToken.encode(ScrollPosition.forward(Map.of("title", "Title", "price", 9.0, "id", 42L)));
+
+        KeysetScrollPosition position = ContinuationToken.decode(token, sort);
+
+        assertThat(position.scrollsForward()).isTrue();
+        assertThat(position.getKeys())
+                .containsEntry("title", "Title")
+                .containsEntry("price", 9.0)
+                .containsEntry("id", 42L);
+    }
+
+    @Test
+    void whenTokenIssuedForAnotherSortThenThrows() {
+        String token = ContinuationToken.encode(ScrollPosition.forward(Map.of("id", 42L)));
+        assertThatThrownBy(() -> ContinuationToken.decode(token, Sort.by("title")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void whenTokenMalformedThenThrows() {
+        assertThatThrownBy(() -> ContinuationToken.decode("not a token", Sort.by("id")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void whenSortPropertyNullableThenThrows() {
+        assertThatThrownBy(() -> ContinuationToken.decode("", Sort.by("publisher")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+}
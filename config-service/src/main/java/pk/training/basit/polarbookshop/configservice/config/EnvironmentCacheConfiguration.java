@@ -0,0 +1,54 @@
+package pk.training.basit.polarbookshop.configservice.config;
+
+import java.util.List;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.config.server.config.ConfigServerProperties;
+import org.springframework.cloud.config.server.environment.MultipleJGitEnvironmentProperties;
+import org.springframework.cloud.config.server.environment.MultipleJGitEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.MultipleJGitEnvironmentRepositoryFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import pk.training.basit.polarbookshop.configservice.environment.CachingEnvironmentRepository;
+
+/**
+ * Puts the git repository behind a CachingEnvironmentRepository. Declaring an EnvironmentRepository makes the
+ * Config Server auto-configuration back off, so the git repository is built here the same way it does. The caching
+ * repository takes the place of the composite one it would create around it.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(EnvironmentCacheProperties.class)
+public class EnvironmentCacheConfiguration {
+
+	@Bean
+	public MultipleJGitEnvironmentRepository gitEnvironmentRepository(
+			MultipleJGitEnvironmentRepositoryFactory gitEnvironmentRepositoryFactory,
+			MultipleJGitEnvironmentProperties gitEnvironmentProperties) throws Exception {
+		return gitEnvironmentRepositoryFactory.build(gitEnvironmentProperties);
+	}
+
+	@Bean
+	@Primary
+	public CachingEnvironmentRepository cachingEnvironmentRepository(
+			MultipleJGitEnvironmentRepository gitEnvironmentRepository, ConfigServerProperties configServerProperties,
+			EnvironmentCacheProperties environmentCacheProperties,
+			ObjectProvider<ObservationRegistry> observationRegistry) {
+		return new CachingEnvironmentRepository(List.of(gitEnvironmentRepository),
+				observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP),
+				configServerProperties.isFailOnCompositeError(), environmentCacheProperties.maximumSize());
+	}
+
+	@Bean
+	public SchedulingConfigurer environmentCacheRefresh(CachingEnvironmentRepository cachingEnvironmentRepository,
+			EnvironmentCacheProperties environmentCacheProperties) {
+		return taskRegistrar -> taskRegistrar.addFixedDelayTask(cachingEnvironmentRepository::refresh,
+				environmentCacheProperties.pollInterval());
+	}
+
+}
@@ -0,0 +1,18 @@
+package pk.training.basit.polarbookshop.configservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-memory cache of the environments served to the clients, holding up to maximumSize of them. Every pollInterval
+ * the repository is pulled, and the environments of the labels whose commit id changed are evicted.
+ */
+@ConfigurationProperties(prefix = "polar.environment-cache")
+public record EnvironmentCacheProperties (
+
+	long maximumSize,
+
+	Duration pollInterval
+
+){}
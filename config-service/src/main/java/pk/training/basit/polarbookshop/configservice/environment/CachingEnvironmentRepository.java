@@ -0,0 +1,216 @@
+package pk.training.basit.polarbookshop.configservice.environment;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.SearchPathCompositeEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.SearchPathLocator;
+
+/**
+ * Serves the environments resolved by the backing repositories from memory. The first request of an application,
+ * profile and label resolves it and the following ones are answered without touching the repository, so force-pull
+ * no longer reaches the remote on every request.
+ *
+ * refresh() is called on a schedule. It asks the repositories for the version of every label in the cache, which
+ * pulls the remote, and evicts the environments resolved from another version. Since an environment is resolved
+ * again only when the commit id of its label changed, a client can poll its version cheaply and refresh only when
+ * its own property sources changed. A repository which doesn't report a version has its environments evicted on
+ * every refresh.
+ *
+ * The application, profile and label come from the request, so the cache is bounded and the least recently used
+ * environments are evicted first. An environment is resolved outside of the cache: a miss only inserts a future,
+ * which the requests of the same environment wait for, so resolving it doesn't block the other entries.
+ */
+public class CachingEnvironmentRepository extends SearchPathCompositeEnvironmentRepository {
+
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	// The version of every label is looked up with the locations of these, which the repositories resolve anyway
+	private static final String APPLICATION = "application";
+	private static final String PROFILE = "default";
+
+	// The key of the default label, since a null key isn't allowed
+	private static final String DEFAULT_LABEL = "";
+
+	private final List<SearchPathLocator> searchPathLocators;
+	private final Cache<CacheKey, CompletableFuture<CachedEnvironment>> environments;
+	private final Map<String, String> versions = new ConcurrentHashMap<>();
+
+	public CachingEnvironmentRepository(List<EnvironmentRepository> environmentRepositories,
+			ObservationRegistry observationRegistry, boolean failOnError, long maximumSize) {
+		super(new ArrayList<>(environmentRepositories), observationRegistry, failOnError);	// Sorted in place by the superclass
+		this.searchPathLocators = environmentRepositories.stream()
+				.filter(SearchPathLocator.class::isInstance)
+				.map(SearchPathLocator.class::cast)
+				.toList();
+		this.environments = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.build();
+	}
+
+	@Override
+	public Environment findOne(String application, String profile, String label, boolean includeOrigin) {
+		CachedEnvironment cachedEnvironment = getCachedEnvironment(application, profile, label, includeOrigin);
+
+		// A copy is returned, since the overrides are added to the environment on its way to the client
+		Environment environment = new Environment(cachedEnvironment.environment());
+		environment.addAll(cachedEnvironment.environment().getPropertySources());
+		return environment;
+	}
+
+	/**
+	 * Returns the cached environment with the version it was resolved from and the digest of its property sources,
+	 * resolving it first if it isn't cached.
+	 */
+	public CachedEnvironment getCachedEnvironment(String application, String profile, String label,
+			boolean includeOrigin) {
+		CacheKey cacheKey = new CacheKey(application, profile, Objects.requireNonNullElse(label, DEFAULT_LABEL),
+				includeOrigin);
+		CompletableFuture<CachedEnvironment> resolution = new CompletableFuture<>();
+		CompletableFuture<CachedEnvironment> cachedEnvironment = environments.get(cacheKey, key -> resolution);
+		if (cachedEnvironment == resolution) {	// Concurrent misses resolve it only once
+			try {
+				resolution.complete(resolve(cacheKey));
+			} catch (RuntimeException | Error exception) {
+				environments.asMap().remove(cacheKey, resolution);	// Not cached, the next request tries again
+				resolution.completeExceptionally(exception);
+			}
+		}
+
+		try {
+			return cachedEnvironment.join();
+		} catch (CompletionException exception) {
+			throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+		}
+	}
+
+	/**
+	 * Looks up the current version of every cached label and evicts the environments resolved from another one.
+	 * A label which can't be looked up, because the remote can't be reached for instance, keeps its environments
+	 * until the next refresh.
+	 */
+	public void refresh() {
+		Set<String> labels = environments.asMap().keySet().stream()
+				.map(CacheKey::label)
+				.collect(Collectors.toCollection(HashSet::new));
+		labels.add(DEFAULT_LABEL);
+		for (String label : labels) {
+			try {
+				String version = currentVersion(label);
+				String previousVersion = version != null ? versions.put(label, version) : versions.remove(label);
+				if (previousVersion != null && !previousVersion.equals(version)) {
+					LOGGER.info("Version of label '{}' changed from {} to {}", label, previousVersion, version);
+				}
+				environments.asMap().entrySet().removeIf(entry -> entry.getKey().label().equals(label)
+						&& isResolvedFromOtherVersion(entry.getValue(), version));
+			} catch (RuntimeException exception) {
+				LOGGER.warn("Failed to look up the version of label '{}': {}", label, exception.getMessage());
+			}
+		}
+		versions.keySet().retainAll(labels);	// The labels of evicted environments
+	}
+
+	/**
+	 * An environment still being resolved is kept: its version was looked up first, so the next refresh checks it.
+	 */
+	private static boolean isResolvedFromOtherVersion(CompletableFuture<CachedEnvironment> resolution,
+			String version) {
+		if (!resolution.isDone() || resolution.isCompletedExceptionally()) {
+			return false;
+		}
+		return version == null || !version.equals(resolution.join().version());
+	}
+
+	private CachedEnvironment resolve(CacheKey cacheKey) {
+		String label = DEFAULT_LABEL.equals(cacheKey.label()) ? null : cacheKey.label();
+
+		// Looked up before resolving, so that an environment resolved while the version changes is evicted by the next refresh
+		String version = knownVersion(cacheKey.label());
+		Environment environment = super.findOne(cacheKey.application(), cacheKey.profile(), label,
+				cacheKey.includeOrigin());
+		LOGGER.debug("Resolved environment of {}/{}/{} at version {}", cacheKey.application(), cacheKey.profile(),
+				cacheKey.label(), version);
+		return new CachedEnvironment(environment, version, digest(environment));
+	}
+
+	/**
+	 * Returns the version of the label last looked up, looking it up first if it's unknown. The lookup may pull the
+	 * remote repository, so it's made outside of the versions map, which refresh() updates concurrently.
+	 */
+	private String knownVersion(String label) {
+		String version = versions.get(label);
+		if (version != null) {
+			return version;
+		}
+		version = currentVersion(label);
+		if (version == null) {	// Not reported by the repository, the environment is evicted by the next refresh
+			return null;
+		}
+		String previousVersion = versions.putIfAbsent(label, version);
+		return previousVersion != null ? previousVersion : version;
+	}
+
+	private String currentVersion(String label) {
+		String version = searchPathLocators.stream()
+				.map(locator -> locator.getLocations(APPLICATION, PROFILE, DEFAULT_LABEL.equals(label) ? null : label))
+				.map(SearchPathLocator.Locations::getVersion)
+				.filter(Objects::nonNull)
+				.collect(Collectors.joining(","));
+		return version.isEmpty() ? null : version;
+	}
+
+	/**
+	 * The digest covers the names and the values of the property sources, so that it only changes for a client when
+	 * a commit changed one of its own property files.
+	 */
+	private static String digest(Environment environment) {
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+			for (PropertySource propertySource : environment.getPropertySources()) {
+				update(messageDigest, propertySource.getName());
+				for (Map.Entry<?, ?> property : propertySource.getSource().entrySet()) {
+					update(messageDigest, String.valueOf(property.getKey()));
+					update(messageDigest, String.valueOf(property.getValue()));
+				}
+			}
+			return HexFormat.of().formatHex(messageDigest.digest());
+		} catch (NoSuchAlgorithmException exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+
+	private static void update(MessageDigest messageDigest, String value) {
+		messageDigest.update(value.getBytes(StandardCharsets.UTF_8));
+		messageDigest.update((byte) 0);	// Separates the values, so that "ab" + "c" and "a" + "bc" differ
+	}
+
+	private record CacheKey(String application, String profile, String label, boolean includeOrigin) {
+	}
+
+	/**
+	 * An environment resolved from the given version of its label, null when the repository doesn't report one.
+	 */
+	public record CachedEnvironment(Environment environment, String version, String digest) {
+	}
+
+}
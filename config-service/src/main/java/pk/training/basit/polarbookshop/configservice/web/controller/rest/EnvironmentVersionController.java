@@ -0,0 +1,52 @@
+package pk.training.basit.polarbookshop.configservice.web.controller.rest;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import pk.training.basit.polarbookshop.configservice.environment.CachingEnvironmentRepository;
+import pk.training.basit.polarbookshop.configservice.environment.CachingEnvironmentRepository.CachedEnvironment;
+import pk.training.basit.polarbookshop.configservice.web.dto.EnvironmentVersion;
+
+/**
+ * Lets a client find out whether its configuration changed without downloading it. The ETag is the digest of the
+ * property sources of the environment: a client sends it back in If-None-Match and gets a 304 response until a
+ * commit changes one of its properties, which is when it should call /actuator/refresh.
+ */
+@RestController
+@RequestMapping("versions")
+public class EnvironmentVersionController {
+
+	private final CachingEnvironmentRepository cachingEnvironmentRepository;
+
+	public EnvironmentVersionController(CachingEnvironmentRepository cachingEnvironmentRepository) {
+		this.cachingEnvironmentRepository = cachingEnvironmentRepository;
+	}
+
+	@GetMapping("{application}/{profile}")
+	public ResponseEntity<EnvironmentVersion> getVersion(@PathVariable String application,
+			@PathVariable String profile, WebRequest webRequest) {
+		return getVersion(application, profile, null, webRequest);
+	}
+
+	@GetMapping("{application}/{profile}/{label}")
+	public ResponseEntity<EnvironmentVersion> getVersion(@PathVariable String application,
+			@PathVariable String profile, @PathVariable String label, WebRequest webRequest) {
+		// A label can't contain a slash in a path, so "(_)" stands for it as with the environment endpoints
+		CachedEnvironment cachedEnvironment = cachingEnvironmentRepository.getCachedEnvironment(application, profile,
+				Environment.normalize(label), false);
+		if (webRequest.checkNotModified(cachedEnvironment.digest())) {
+			return null;	// The 304 response has been prepared by checkNotModified()
+		}
+
+		Environment environment = cachedEnvironment.environment();
+		EnvironmentVersion environmentVersion = new EnvironmentVersion(environment.getName(),
+				environment.getProfiles(), environment.getLabel(), cachedEnvironment.version(),
+				cachedEnvironment.digest());
+		return ResponseEntity.ok().eTag(cachedEnvironment.digest()).body(environmentVersion);
+	}
+
+}
@@ -0,0 +1,13 @@
+package pk.training.basit.polarbookshop.configservice.web.dto;
+
+/**
+ * The version an environment was resolved from and the digest of its property sources, which changes only when
+ * the properties served to the application changed.
+ */
+public record EnvironmentVersion(
+	String name,
+	String[] profiles,
+	String label,
+	String version,
+	String digest
+) {}
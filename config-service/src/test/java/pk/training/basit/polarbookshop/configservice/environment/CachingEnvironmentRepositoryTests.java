@@ -0,0 +1,184 @@
+package pk.training.basit.polarbookshop.configservice.environment;
+
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.SearchPathLocator;
+import org.springframework.cloud.config.server.environment.SearchPathLocator.Locations;
+import pk.training.basit.polarbookshop.configservice.environment.CachingEnvironmentRepository.CachedEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.withSettings;
+
+class CachingEnvironmentRepositoryTests {
+
+	private EnvironmentRepository gitRepository;
+	private CachingEnvironmentRepository cachingRepository;
+
+	@BeforeEach
+	void setUp() {
+		gitRepository = mock(EnvironmentRepository.class, withSettings().extraInterfaces(SearchPathLocator.class));
+		cachingRepository = new CachingEnvironmentRepository(List.of(gitRepository), ObservationRegistry.NOOP, true,
+				100);
+	}
+
+	@Test
+	void whenEnvironmentRequestedAgainThenServedFromCache() {
+		givenVersion("commit-1");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+
+		cachingRepository.findOne("catalog-service", "default", null, false);
+		Environment environment = cachingRepository.findOne("catalog-service", "default", null, false);
+
+		assertThat(environment.getPropertySources()).extracting(PropertySource::getSource)
+				.containsExactly(Map.of("polar.greeting", "Welcome"));
+		then(gitRepository).should(times(1)).findOne(eq("catalog-service"), eq("default"), isNull(), eq(false));
+	}
+
+	@Test
+	void whenEnvironmentReturnedThenChangesDoNotReachCache() {
+		givenVersion("commit-1");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+
+		cachingRepository.findOne("catalog-service", "default", null, false)
+				.addFirst(new PropertySource("overrides", Map.of("polar.greeting", "Overridden")));
+		Environment environment = cachingRepository.findOne("catalog-service", "default", null, false);
+
+		assertThat(environment.getPropertySources()).hasSize(1);
+	}
+
+	@Test
+	void whenVersionUnchangedThenRefreshKeepsEnvironment() {
+		givenVersion("commit-1");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+		cachingRepository.findOne("catalog-service", "default", null, false);
+
+		cachingRepository.refresh();
+		cachingRepository.findOne("catalog-service", "default", null, false);
+
+		then(gitRepository).should(times(1)).findOne(any(), any(), any(), anyBoolean());
+	}
+
+	@Test
+	void whenVersionChangedThenRefreshEvictsEnvironment() {
+		givenVersion("commit-1");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+		CachedEnvironment before = cachingRepository.getCachedEnvironment("catalog-service", "default", null, false);
+
+		givenVersion("commit-2");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome to the catalog"));
+		cachingRepository.refresh();
+		CachedEnvironment after = cachingRepository.getCachedEnvironment("catalog-service", "default", null, false);
+
+		assertThat(after.version()).isEqualTo("commit-2");
+		assertThat(after.digest()).isNotEqualTo(before.digest());
+		then(gitRepository).should(times(2)).findOne(any(), any(), any(), anyBoolean());
+	}
+
+	@Test
+	void whenVersionChangedWithoutChangingPropertiesThenDigestUnchanged() {
+		givenVersion("commit-1");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+		CachedEnvironment before = cachingRepository.getCachedEnvironment("catalog-service", "default", null, false);
+
+		givenVersion("commit-2");
+		cachingRepository.refresh();
+		CachedEnvironment after = cachingRepository.getCachedEnvironment("catalog-service", "default", null, false);
+
+		assertThat(after.version()).isEqualTo("commit-2");
+		assertThat(after.digest()).isEqualTo(before.digest());
+	}
+
+	@Test
+	void whenVersionLookupFailsThenRefreshKeepsEnvironment() {
+		givenVersion("commit-1");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+		cachingRepository.findOne("catalog-service", "default", null, false);
+
+		given(((SearchPathLocator) gitRepository).getLocations(any(), any(), any()))
+				.willThrow(new IllegalStateException("Cannot pull the remote repository"));
+		cachingRepository.refresh();
+		cachingRepository.findOne("catalog-service", "default", null, false);
+
+		then(gitRepository).should(times(1)).findOne(any(), any(), any(), anyBoolean());
+	}
+
+	@Test
+	void whenNoVersionReportedThenRefreshEvictsEnvironment() {
+		givenVersion(null);
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+		cachingRepository.findOne("catalog-service", "default", null, false);
+
+		cachingRepository.refresh();
+		cachingRepository.findOne("catalog-service", "default", null, false);
+
+		then(gitRepository).should(times(2)).findOne(any(), any(), any(), anyBoolean());
+	}
+
+	@Test
+	void whenLabelsDifferThenCachedSeparately() {
+		givenVersion("commit-1");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+
+		cachingRepository.findOne("catalog-service", "default", null, false);
+		cachingRepository.findOne("catalog-service", "default", "release", false);
+
+		then(gitRepository).should().findOne(eq("catalog-service"), eq("default"), isNull(), eq(false));
+		then(gitRepository).should().findOne(eq("catalog-service"), eq("default"), eq("release"), eq(false));
+	}
+
+	@Test
+	void whenVersionKnownThenNotLookedUpAgainOnMiss() {
+		givenVersion("commit-1");
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+		givenEnvironment("order-service", Map.of("polar.greeting", "Welcome"));
+
+		cachingRepository.findOne("catalog-service", "default", null, false);
+		cachingRepository.findOne("order-service", "default", null, false);
+
+		then((SearchPathLocator) gitRepository).should(times(1)).getLocations(any(), any(), any());
+	}
+
+	@Test
+	void whenResolutionFailsThenNotCached() {
+		givenVersion("commit-1");
+		given(gitRepository.findOne(eq("catalog-service"), any(), any(), anyBoolean()))
+				.willThrow(new IllegalStateException("Cannot clone the remote repository"));
+
+		assertThatThrownBy(() -> cachingRepository.findOne("catalog-service", "default", null, false))
+				.isInstanceOf(IllegalStateException.class);
+		givenEnvironment("catalog-service", Map.of("polar.greeting", "Welcome"));
+		Environment environment = cachingRepository.findOne("catalog-service", "default", null, false);
+
+		assertThat(environment.getPropertySources()).hasSize(1);
+	}
+
+	private void givenVersion(String version) {
+		given(((SearchPathLocator) gitRepository).getLocations(any(), any(), any()))
+				.willReturn(new Locations("application", "default", null, version, new String[0]));
+	}
+
+	private void givenEnvironment(String application, Map<String, String> properties) {
+		given(gitRepository.findOne(eq(application), any(), any(), anyBoolean())).willAnswer(invocation -> {
+			Environment environment = new Environment(application, "default");
+			environment.add(new PropertySource("git:" + application + ".yml", properties));
+			return environment;
+		});
+	}
+
+}
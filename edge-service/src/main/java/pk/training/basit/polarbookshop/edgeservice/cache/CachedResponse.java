@@ -0,0 +1,39 @@
+package pk.training.basit.polarbookshop.edgeservice.cache;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A response stored in the ResponseCache, with the headers worth replaying to the clients.
+ */
+public record CachedResponse(
+		HttpHeaders headers,
+		byte[] body,
+		long storedAt,
+		long freshUntil
+) {
+
+	public boolean isFresh(long now) {
+		return now - freshUntil < 0;
+	}
+
+	public String eTag() {
+		return headers.getETag();
+	}
+
+	/**
+	 * Returns the number of seconds since the response was received or last revalidated, for the Age header.
+	 */
+	public long age(long now) {
+		return Duration.ofNanos(now - storedAt).toSeconds();
+	}
+
+	/**
+	 * Returns the size the response takes in the cache, roughly estimated from its body and headers.
+	 */
+	public int weight() {
+		return body.length + headers.toString().length();
+	}
+
+}
@@ -0,0 +1,187 @@
+package pk.training.basit.polarbookshop.edgeservice.cache;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * In-memory cache of GET responses, bounded by the total size of the responses. Only the representation headers
+ * are stored, never Set-Cookie or hop-by-hop headers, since the same response is replayed to every client.
+ *
+ * Freshness follows the Cache-Control header of the response: no-store and private responses are not stored,
+ * no-cache ones are always revalidated, and s-maxage or max-age, when present, replace the default time to live.
+ * The variants of a response are only told apart by the Accept header of the request, so responses varying on any
+ * other request header are not stored either.
+ */
+public class ResponseCache {
+
+	/**
+	 * Exchange attribute holding the cache key of the request, for the fallback endpoints of the circuit breakers.
+	 */
+	public static final String CACHE_KEY_ATTR = ResponseCache.class.getName() + ".cacheKey";
+
+	private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING,
+			HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL,
+			HttpHeaders.VARY);
+
+	private final Cache<String, CachedResponse> cache;
+	private final Duration timeToLive;
+
+	public ResponseCache(DataSize maxSize, Duration timeToLive, Duration maxStale) {
+		this.timeToLive = timeToLive;
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(maxSize.toBytes())
+				.weigher((String key, CachedResponse response) -> response.weight())
+				.expireAfterWrite(maxStale)
+				.build();
+	}
+
+	/**
+	 * Returns the key of the request, made of its URI and of the media types it accepts.
+	 */
+	public String key(ServerHttpRequest request) {
+		return resourceKey(request.getMethod(), request.getURI()) + request.getHeaders().getAccept();
+	}
+
+	// The start of the keys of all the variants of the responses to the method and URI
+	private static String resourceKey(HttpMethod method, URI uri) {
+		return method + " " + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "") + " ";
+	}
+
+	public CachedResponse get(String key) {
+		return cache.getIfPresent(key);
+	}
+
+	public void invalidate(String key) {
+		cache.invalidate(key);
+	}
+
+	/**
+	 * Invalidates the GET responses to the URI, whatever media type they were negotiated for, once a request with an
+	 * unsafe method changed the resource. Only the path and query of the URI are considered, as the cache is used for
+	 * the routes of a single host.
+	 */
+	public void invalidateAll(URI uri) {
+		String resourceKey = resourceKey(HttpMethod.GET, uri);
+		cache.asMap().keySet().removeIf(key -> key.startsWith(resourceKey));
+	}
+
+	/**
+	 * Stores a response received from the downstream service and returns it, or returns null when its Cache-Control
+	 * header forbids storing it.
+	 */
+	public CachedResponse store(String key, HttpHeaders responseHeaders, byte[] body, long now) {
+		Duration freshness = freshness(responseHeaders);
+		if (freshness == null || variesBeyondAccept(responseHeaders)) {
+			cache.invalidate(key);
+			return null;
+		}
+
+		HttpHeaders headers = new HttpHeaders();
+		STORED_HEADERS.forEach(name -> {
+			List<String> values = responseHeaders.get(name);
+			if (values != null) {
+				headers.put(name, values);
+			}
+		});
+		CachedResponse response = new CachedResponse(HttpHeaders.readOnlyHttpHeaders(headers), body, now,
+				now + freshness.toNanos());
+		cache.put(key, response);
+		return response;
+	}
+
+	/**
+	 * Marks a stale response as fresh again after the downstream service answered 304 Not Modified to its
+	 * revalidation, with the freshness given by the headers of the 304 response.
+	 */
+	public CachedResponse revalidate(String key, CachedResponse cached, HttpHeaders notModifiedHeaders, long now) {
+		Duration freshness = freshness(notModifiedHeaders);
+		if (freshness == null) {
+			cache.invalidate(key);
+			return cached;
+		}
+
+		CachedResponse response = new CachedResponse(cached.headers(), cached.body(), now, now + freshness.toNanos());
+		cache.put(key, response);
+		return response;
+	}
+
+	/**
+	 * Writes a cached response. When the client already holds the same version, as told by If-None-Match, only
+	 * 304 Not Modified is returned.
+	 */
+	public Mono<Void> write(ServerHttpRequest request, ServerHttpResponse response, CachedResponse cached, long now) {
+		response.getHeaders().putAll(cached.headers());
+		response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cached.age(now)));
+
+		if (cached.eTag() != null && request.getHeaders().getIfNoneMatch().contains(cached.eTag())) {
+			response.setStatusCode(HttpStatus.NOT_MODIFIED);
+			return response.setComplete();
+		}
+
+		response.setStatusCode(HttpStatus.OK);
+		response.getHeaders().setContentLength(cached.body().length);
+		return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+	}
+
+	// Vary: * included, as the key would serve the response to requests it doesn't suit
+	private static boolean variesBeyondAccept(HttpHeaders headers) {
+		return headers.getVary().stream().anyMatch(name -> !name.equalsIgnoreCase(HttpHeaders.ACCEPT));
+	}
+
+	/**
+	 * Returns how long a response stays fresh, or null when it must not be stored.
+	 */
+	private Duration freshness(HttpHeaders headers) {
+		String cacheControl = headers.getCacheControl();
+		if (!StringUtils.hasText(cacheControl)) {
+			return timeToLive;
+		}
+
+		Duration maxAge = null;
+		Duration sharedMaxAge = null;
+		for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+			directive = directive.trim();
+			if (directive.equals("no-store") || directive.equals("private")) {
+				return null;
+			}
+			if (directive.equals("no-cache")) {
+				return Duration.ZERO;
+			}
+			if (directive.startsWith("max-age=")) {
+				maxAge = parseSeconds(directive.substring("max-age=".length()));
+			}
+			if (directive.startsWith("s-maxage=")) {
+				sharedMaxAge = parseSeconds(directive.substring("s-maxage=".length()));
+			}
+		}
+
+		// s-maxage applies to shared caches like this one, and takes precedence over max-age
+		if (sharedMaxAge != null) {
+			return sharedMaxAge;
+		}
+		return maxAge != null ? maxAge : timeToLive;
+	}
+
+	private static Duration parseSeconds(String seconds) {
+		try {
+			return Duration.ofSeconds(Long.parseLong(seconds));
+		} catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+}
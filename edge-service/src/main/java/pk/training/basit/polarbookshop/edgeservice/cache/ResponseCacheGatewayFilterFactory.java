@@ -0,0 +1,167 @@
+package pk.training.basit.polarbookshop.edgeservice.cache;
+
+import java.util.Set;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+/**
+ * Caches the successful GET responses of a route in the ResponseCache. Fresh responses are returned without calling
+ * the downstream service. Stale ones are revalidated with If-None-Match when they have an ETag, so that the service
+ * only answers 304 Not Modified when nothing changed. Clients sending Cache-Control: no-cache always get a
+ * revalidated response, and no-store requests bypass the cache.
+ *
+ * A request with an unsafe method, such as PUT or DELETE /books/{isbn}, invalidates the cached responses to its URI
+ * and to the Location and Content-Location of its response when it succeeds, as required by RFC 9111, section 4.4.
+ *
+ * The filter must come before the CircuitBreaker filter of the route, so that the fallback response returned while
+ * the circuit is open is never cached. The fallback endpoint can find the stale response to return instead through
+ * the ResponseCache.CACHE_KEY_ATTR exchange attribute.
+ */
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+	private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS,
+			HttpMethod.TRACE);
+
+	private final ResponseCache responseCache;
+
+	public ResponseCacheGatewayFilterFactory(ResponseCache responseCache) {
+		super(Object.class);
+		this.responseCache = responseCache;
+	}
+
+	@Override
+	public GatewayFilter apply(Object config) {
+		return (exchange, chain) -> {
+			ServerHttpRequest request = exchange.getRequest();
+			String cacheControl = String.valueOf(request.getHeaders().getCacheControl());
+			if (!SAFE_METHODS.contains(request.getMethod())) {
+				// Before the response is sent, so that the next request of the client can't get the stale response
+				exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> invalidate(exchange)));
+				return chain.filter(exchange);
+			}
+			if (request.getMethod() != HttpMethod.GET || cacheControl.contains("no-store")) {
+				return chain.filter(exchange);
+			}
+
+			String key = responseCache.key(request);
+			exchange.getAttributes().put(ResponseCache.CACHE_KEY_ATTR, key);
+
+			long now = System.nanoTime();
+			CachedResponse cached = responseCache.get(key);
+			if (cached != null && cached.isFresh(now) && !cacheControl.contains("no-cache")) {
+				return responseCache.write(request, exchange.getResponse(), cached, now);
+			}
+
+			// The stale response is revalidated on behalf of the client, whatever version the client holds
+			CachedResponse revalidated = cached != null && cached.eTag() != null ? cached : null;
+			ServerHttpRequest forwardedRequest = revalidated == null ? request : revalidationRequest(request, revalidated);
+
+			return chain.filter(exchange.mutate()
+					.request(forwardedRequest)
+					.response(new CachingResponseDecorator(exchange, key, revalidated))
+					.build());
+		};
+	}
+
+	private void invalidate(ServerWebExchange exchange) {
+		HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+		if (statusCode != null && (statusCode.is2xxSuccessful() || statusCode.is3xxRedirection())) {
+			responseCache.invalidateAll(exchange.getRequest().getURI());
+			HttpHeaders headers = exchange.getResponse().getHeaders();
+			for (String location : new String[] { headers.getFirst(HttpHeaders.LOCATION),
+					headers.getFirst(HttpHeaders.CONTENT_LOCATION) }) {
+				if (location != null) {
+					try {
+						responseCache.invalidateAll(exchange.getRequest().getURI().resolve(location));
+					} catch (IllegalArgumentException exception) {
+						// Not a URI, so it can't name a cached response
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a copy of the request asking for the cached version, leaving the headers of the client request untouched
+	 * since mutate() may share them.
+	 */
+	private static ServerHttpRequest revalidationRequest(ServerHttpRequest request, CachedResponse revalidated) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(request.getHeaders());
+		headers.setIfNoneMatch(revalidated.eTag());
+		return new ServerHttpRequestDecorator(request) {
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+		};
+	}
+
+	private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+		private final ServerWebExchange exchange;
+		private final String key;
+		private final CachedResponse revalidated;
+
+		CachingResponseDecorator(ServerWebExchange exchange, String key, CachedResponse revalidated) {
+			super(exchange.getResponse());
+			this.exchange = exchange;
+			this.key = key;
+			this.revalidated = revalidated;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			// The fallback response of the circuit breaker, which must not replace the cached one
+			if (exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR) != null) {
+				return super.writeWith(body);
+			}
+
+			HttpStatusCode statusCode = getStatusCode();
+			if (statusCode == HttpStatus.NOT_MODIFIED && revalidated != null) {
+				return Flux.from(body)
+						.doOnNext(DataBufferUtils::release)
+						.then(Mono.defer(() -> {
+							long now = System.nanoTime();
+							CachedResponse cached = responseCache.revalidate(key, revalidated, getHeaders(), now);
+							return responseCache.write(exchange.getRequest(), getDelegate(), cached, now);
+						}));
+			}
+
+			if (statusCode == HttpStatus.OK) {
+				return DataBufferUtils.join(body)
+						.flatMap(dataBuffer -> {
+							byte[] bytes = new byte[dataBuffer.readableByteCount()];
+							dataBuffer.read(bytes);
+							DataBufferUtils.release(dataBuffer);
+							responseCache.store(key, getHeaders(), bytes, System.nanoTime());
+							return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+						});
+			}
+
+			if (statusCode == HttpStatus.NOT_FOUND || statusCode == HttpStatus.GONE) {
+				responseCache.invalidate(key);
+			}
+			return super.writeWith(body);
+		}
+
+	}
+
+}
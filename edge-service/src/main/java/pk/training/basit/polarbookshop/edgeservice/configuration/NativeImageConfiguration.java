@@ -0,0 +1,41 @@
+package pk.training.basit.polarbookshop.edgeservice.configuration;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+import pk.training.basit.polarbookshop.edgeservice.ratelimit.LocalTokenBucketRateLimiter;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * The hints a native image needs beyond the ones Spring AOT and Spring Cloud Gateway infer. They are only used by
+ * the nativeCompile task and by the AOT processing, and cost nothing on the JVM.
+ *
+ * Spring Cloud Gateway registers the configuration of its own filters, but the one of the local rate limiter is
+ * bound from the route arguments and validated reflectively. The exceptions retried by the Retry filter are loaded
+ * by name from gateway.yml.
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageConfiguration.EdgeServiceRuntimeHints.class)
+@RegisterReflectionForBinding(LocalTokenBucketRateLimiter.Config.class)
+public class NativeImageConfiguration {
+
+	static class EdgeServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+		@Override
+		public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+
+			// Imported by application.yml, only the application files are registered by Spring Boot
+			hints.resources().registerPattern("*.yml");
+
+			hints.reflection().registerType(IOException.class);
+			hints.reflection().registerType(TimeoutException.class);
+		}
+
+	}
+
+}
@@ -1,24 +1,56 @@
 package pk.training.basit.polarbookshop.edgeservice.configuration;
 
-import reactor.core.publisher.Mono;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+import pk.training.basit.polarbookshop.edgeservice.ratelimit.ChainedKeyResolver;
+import pk.training.basit.polarbookshop.edgeservice.ratelimit.LocalTokenBucketRateLimiter;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ConfigurationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 
 @Configuration
+@EnableConfigurationProperties(RateLimiterProperties.class)
 public class RateLimiterConfiguration {
 
 	/**
 	 * The RequestRateLimiter filter relies on a KeyResolver bean to determine which bucket to use for each request.
 	 * By default, it uses the currently authenticated user in Spring Security. Until we add security to Edge Service,
-	 * we’ll define a custom KeyResolver bean and make it return a constant value (for example, anonymous) so that
-	 * all requests will be mapped to the same bucket.
+	 * requests are keyed on the first of the configured key types they carry (API key, session, client address),
+	 * so that each client gets its own bucket. Requests carrying none of them share the anonymous bucket.
 	 */
 	@Bean
-	public KeyResolver keyResolver() {
-		// Rate limiting is applied to requests using a constant key.
-		return exchange -> Mono.just("anonymous");
+	public KeyResolver keyResolver(RateLimiterProperties rateLimiterProperties) {
+		return new ChainedKeyResolver(rateLimiterProperties.keyResolvers(), rateLimiterProperties.apiKeyHeader());
+	}
+
+	/**
+	 * Replaces RedisRateLimiter as the rate limiter used by the RequestRateLimiter filter, which takes the primary
+	 * RateLimiter bean. Its limits are configured with the local-rate-limiter arguments of the filter.
+	 */
+	@Bean
+	@Primary
+	public LocalTokenBucketRateLimiter localTokenBucketRateLimiter(RateLimiterProperties rateLimiterProperties,
+			ConfigurationService configurationService, ObjectProvider<ReactiveStringRedisTemplate> redisTemplate) {
+		Map<String, LocalTokenBucketRateLimiter.Config> routeConfigs = rateLimiterProperties.routes().entrySet()
+				.stream()
+				.collect(Collectors.toMap(Map.Entry::getKey, route -> new LocalTokenBucketRateLimiter.Config()
+						.setReplenishRate(route.getValue().replenishRate())
+						.setBurstCapacity(route.getValue().burstCapacity())));
+
+		if (!rateLimiterProperties.redisSync()) {
+			return new LocalTokenBucketRateLimiter(configurationService, rateLimiterProperties.idleTimeout(),
+					routeConfigs);
+		}
+		return new LocalTokenBucketRateLimiter(configurationService, rateLimiterProperties.idleTimeout(),
+				routeConfigs, redisTemplate.getObject(), rateLimiterProperties.syncInterval(),
+				rateLimiterProperties.refreshInterval(), rateLimiterProperties.shards());
 	}
 	
 }
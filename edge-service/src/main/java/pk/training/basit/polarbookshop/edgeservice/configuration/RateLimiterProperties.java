@@ -0,0 +1,61 @@
+package pk.training.basit.polarbookshop.edgeservice.configuration;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+import pk.training.basit.polarbookshop.edgeservice.ratelimit.RateLimitKeyType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of the in-memory token bucket rate limiter. When redisSync is disabled, every instance of Edge Service
+ * enforces the limits on its own. When enabled, the instances share the tokens they consumed through Redis every
+ * syncInterval, so the limits apply approximately across all of them. The buckets which consumed no token since
+ * the previous round only learn about the tokens consumed elsewhere every refreshInterval.
+ *
+ * Requests are keyed on the first of keyResolvers that applies to them. The limits set on the RequestRateLimiter
+ * filter can be overridden per route id in routes.
+ */
+@ConfigurationProperties(prefix = "polar.rate-limiter")
+@Validated
+public record RateLimiterProperties(
+
+	@DefaultValue("true")
+	boolean redisSync,
+
+	@DefaultValue("200ms")
+	Duration syncInterval,
+
+	@DefaultValue("5s")
+	Duration refreshInterval,
+
+	@DefaultValue("1m")
+	Duration idleTimeout,
+
+	@Min(1)
+	@DefaultValue("16")
+	int shards,
+
+	@DefaultValue({"api-key", "session", "client-ip"})
+	List<RateLimitKeyType> keyResolvers,
+
+	@DefaultValue("X-API-Key")
+	String apiKeyHeader,
+
+	@DefaultValue
+	Map<String, RouteLimits> routes
+
+){
+
+	public record RouteLimits(
+
+		int replenishRate,
+
+		int burstCapacity
+
+	){}
+
+}
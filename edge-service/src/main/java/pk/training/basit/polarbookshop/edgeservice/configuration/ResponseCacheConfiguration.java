@@ -0,0 +1,28 @@
+package pk.training.basit.polarbookshop.edgeservice.configuration;
+
+import pk.training.basit.polarbookshop.edgeservice.cache.ResponseCache;
+import pk.training.basit.polarbookshop.edgeservice.cache.ResponseCacheGatewayFilterFactory;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfiguration {
+
+	@Bean
+	public ResponseCache responseCache(ResponseCacheProperties responseCacheProperties) {
+		return new ResponseCache(responseCacheProperties.maxSize(), responseCacheProperties.timeToLive(),
+				responseCacheProperties.maxStale());
+	}
+
+	/**
+	 * Makes the ResponseCache filter available to the routes, as in "filters: - ResponseCache".
+	 */
+	@Bean
+	public ResponseCacheGatewayFilterFactory responseCacheGatewayFilterFactory(ResponseCache responseCache) {
+		return new ResponseCacheGatewayFilterFactory(responseCache);
+	}
+
+}
@@ -0,0 +1,22 @@
+package pk.training.basit.polarbookshop.edgeservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory cache of the responses of the routes using the ResponseCache filter. A response is
+ * fresh for timeToLive, unless its Cache-Control max-age says otherwise. Stale responses are revalidated with the
+ * downstream service, and kept for maxStale to be served while its circuit breaker is open.
+ */
+@ConfigurationProperties(prefix = "polar.response-cache")
+public record ResponseCacheProperties(
+
+	DataSize maxSize,
+
+	Duration timeToLive,
+
+	Duration maxStale
+
+){}
@@ -0,0 +1,56 @@
+package pk.training.basit.polarbookshop.edgeservice.configuration;
+
+import java.time.Duration;
+
+import pk.training.basit.polarbookshop.edgeservice.session.TwoTierSessionRepository;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.boot.autoconfigure.session.RedisSessionProperties;
+import org.springframework.boot.autoconfigure.session.SessionProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.config.annotation.web.server.EnableSpringWebSession;
+
+/**
+ * Replaces the Redis session repository configured by Spring Boot, which backs off when another
+ * ReactiveSessionRepository is defined, with the two-tier one. The values are serialized like Spring Session does,
+ * so the sessions already stored in Redis can still be read.
+ */
+@Configuration
+@EnableSpringWebSession
+@EnableConfigurationProperties({ SessionStoreProperties.class, RedisSessionProperties.class })
+public class SessionConfiguration implements BeanClassLoaderAware {
+
+	private ClassLoader classLoader;
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	@Bean
+	public TwoTierSessionRepository sessionRepository(ReactiveRedisConnectionFactory redisConnectionFactory,
+			SessionStoreProperties sessionStoreProperties, SessionProperties sessionProperties,
+			RedisSessionProperties redisSessionProperties, ServerProperties serverProperties) {
+		RedisSerializer<String> keySerializer = RedisSerializer.string();
+		RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+				.<String, Object>newSerializationContext(new JdkSerializationRedisSerializer(classLoader))
+				.key(keySerializer)
+				.hashKey(keySerializer)
+				.build();
+		Duration timeout = sessionProperties.determineTimeout(
+				() -> serverProperties.getReactive().getSession().getTimeout());
+
+		return new TwoTierSessionRepository(new ReactiveRedisTemplate<>(redisConnectionFactory, serializationContext),
+				redisSessionProperties.getNamespace(), timeout, sessionStoreProperties.localMaximumSize(),
+				sessionStoreProperties.localTimeToLive(), sessionStoreProperties.lastAccessedTimeFlushInterval());
+	}
+
+}
@@ -0,0 +1,21 @@
+package pk.training.basit.polarbookshop.edgeservice.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory tier of the session store. Up to localMaximumSize sessions are kept in memory for
+ * localTimeToLive after they were read from Redis, and their lastAccessedTime is written to Redis at most once per
+ * lastAccessedTimeFlushInterval. The namespace and timeout of the sessions are the spring.session ones.
+ */
+@ConfigurationProperties(prefix = "polar.session")
+public record SessionStoreProperties(
+
+	long localMaximumSize,
+
+	Duration localTimeToLive,
+
+	Duration lastAccessedTimeFlushInterval
+
+){}
@@ -0,0 +1,59 @@
+package pk.training.basit.polarbookshop.edgeservice.ratelimit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebSession;
+
+/**
+ * Tries each key type in turn and keys the request on the first one it can resolve, so that for instance a client
+ * sending an API key gets its own bucket whatever its address. Keys are prefixed with their type, so that buckets of
+ * different types never collide. Requests matching none of the types share the anonymous bucket.
+ */
+public class ChainedKeyResolver implements KeyResolver {
+
+	static final String ANONYMOUS_KEY = "anonymous";
+
+	private final List<RateLimitKeyType> keyTypes;
+	private final String apiKeyHeader;
+
+	public ChainedKeyResolver(List<RateLimitKeyType> keyTypes, String apiKeyHeader) {
+		this.keyTypes = List.copyOf(keyTypes);
+		this.apiKeyHeader = apiKeyHeader;
+	}
+
+	@Override
+	public Mono<String> resolve(ServerWebExchange exchange) {
+		return Flux.fromIterable(keyTypes)
+				.concatMap(keyType -> resolve(keyType, exchange))
+				.next()
+				.defaultIfEmpty(ANONYMOUS_KEY);
+	}
+
+	private Mono<String> resolve(RateLimitKeyType keyType, ServerWebExchange exchange) {
+		return switch (keyType) {
+			// The key itself is hashed, so that it doesn't end up in Redis in clear text
+			case API_KEY -> Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(apiKeyHeader))
+					.filter(StringUtils::hasText)
+					.map(apiKey -> "api-key:" + DigestUtils.md5DigestAsHex(apiKey.getBytes(StandardCharsets.UTF_8)));
+			// A session not started yet gets a new identifier on every request, so it can't be used as a key
+			case SESSION -> exchange.getSession()
+					.filter(WebSession::isStarted)
+					.map(session -> "session:" + session.getId());
+			// The address taken from X-Forwarded-For by the forward headers strategy is left unresolved
+			case CLIENT_IP -> Mono.justOrEmpty(exchange.getRequest().getRemoteAddress())
+					.map(address -> address.isUnresolved() ? address.getHostString()
+							: address.getAddress().getHostAddress())
+					.map(address -> "ip:" + address);
+			case ROUTE -> Mono.just("route");
+		};
+	}
+
+}
@@ -0,0 +1,276 @@
+package pk.training.basit.polarbookshop.edgeservice.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.constraints.Min;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Rate limiter deciding on each request in memory, with a token bucket per route and key, so that rate-limited
+ * routes don't wait for a Redis round trip as they do with RedisRateLimiter. The limits come from the filter
+ * arguments of each route, unless overridden in the route configs given to the constructor, which is logged once
+ * per route.
+ *
+ * When a Redis template is given, the tokens consumed locally are added to a counter per bucket in Redis every
+ * syncInterval, and the tokens consumed by the other instances since the previous synchronization are removed
+ * from the local bucket. The limit is then shared by all the instances, at the cost of letting through up to one
+ * sync interval worth of extra requests per instance. Redis being slow or unavailable never delays a request.
+ *
+ * Only the buckets in which tokens were consumed since the last round are sent, so the Redis traffic follows the
+ * active clients rather than all the clients seen within the idle timeout. The other buckets only fetch the tokens
+ * consumed elsewhere every refreshInterval, and let through more requests in the meantime.
+ *
+ * The counters are spread over a fixed number of shards with a hash tag in their key, as in
+ * polar:rate-limiter:{7}:catalog-route:ip:10.0.0.1. All the counters of a shard live in the same Redis Cluster slot,
+ * so each shard is synchronized with a single script call, and the load is spread over as many slots as shards.
+ */
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config>
+		implements DisposableBean {
+
+	public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private static final String REDIS_KEY_PREFIX = "polar:rate-limiter:";
+
+	// Upper bound of the number of counters sent to Redis in a single script call
+	private static final int MAX_KEYS_PER_CALL = 500;
+
+	// Adds the tokens consumed locally to the counters shared by all the instances and returns the new totals. The
+	// last argument is the time to live of the counters, the others are the tokens to add to each key.
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> SYNC_SCRIPT = RedisScript.of("""
+			local ttl = ARGV[#ARGV]
+			local totals = {}
+			for i, key in ipairs(KEYS) do
+			  totals[i] = redis.call('INCRBY', key, ARGV[i])
+			  redis.call('PEXPIRE', key, ttl)
+			end
+			return totals
+			""", List.class);
+
+	private final Map<String, Config> routeConfigs;
+	private final Set<String> overriddenRoutes = ConcurrentHashMap.newKeySet();
+	private final Cache<String, TokenBucket> buckets;
+	private final ReactiveStringRedisTemplate redisTemplate;
+	private final Duration idleTimeout;
+	private final long refreshInterval;
+	private final int shards;
+	private final Disposable synchronization;
+
+	public LocalTokenBucketRateLimiter(ConfigurationService configurationService, Duration idleTimeout,
+			Map<String, Config> routeConfigs) {
+		this(configurationService, idleTimeout, routeConfigs, null, null, Duration.ZERO, 1);
+	}
+
+	public LocalTokenBucketRateLimiter(ConfigurationService configurationService, Duration idleTimeout,
+			Map<String, Config> routeConfigs, ReactiveStringRedisTemplate redisTemplate, Duration syncInterval,
+			Duration refreshInterval, int shards) {
+		super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+		if (shards < 1) {
+			throw new IllegalArgumentException("The rate limiter needs at least 1 shard, got " + shards);
+		}
+		this.routeConfigs = Map.copyOf(routeConfigs);
+		this.idleTimeout = idleTimeout;
+		this.refreshInterval = refreshInterval.toNanos();
+		this.shards = shards;
+		this.buckets = Caffeine.newBuilder()
+				.expireAfterAccess(idleTimeout)
+				.build();
+		this.redisTemplate = redisTemplate;
+		this.synchronization = redisTemplate == null ? null : Flux.interval(syncInterval)
+				.onBackpressureDrop()	// Skips a round when the previous one is still running...
+				.concatMap(tick -> synchronize(), 0)	// ...as long as no tick is prefetched while it runs
+				.subscribe();
+	}
+
+	@Override
+	public Mono<Response> isAllowed(String routeId, String id) {
+		Config config = routeConfig(routeId);
+
+		long now = System.nanoTime();
+		TokenBucket bucket = buckets.get(routeId + ":" + id, key -> new TokenBucket(config.getBurstCapacity(), now));
+		long tokensLeft = bucket.tryConsume(config.getRequestedTokens(), config.getReplenishRate(),
+				config.getBurstCapacity(), now);
+
+		return Mono.just(new Response(tokensLeft >= 0, getHeaders(config, Math.max(tokensLeft, 0))));
+	}
+
+	/**
+	 * Returns the limits of the route given to the constructor, if any, or else the arguments of its filter. The
+	 * first time the former replace the latter, both are logged, so that an edit of the filter arguments which has no
+	 * effect can be told from the logs.
+	 */
+	private Config routeConfig(String routeId) {
+		Config filterConfig = getConfig().get(routeId);
+		Config config = routeConfigs.get(routeId);
+		if (config == null) {
+			config = filterConfig;
+		} else if (filterConfig != null && overriddenRoutes.add(routeId)) {
+			LOGGER.warn("Rate limits of route {} overridden by the configuration: {} replaces {} from its filter",
+					routeId, config, filterConfig);
+		}
+		if (config == null) {
+			throw new IllegalArgumentException("No Configuration found for route " + routeId);
+		}
+		return config;
+	}
+
+	/**
+	 * Same headers as the ones returned by RedisRateLimiter, so that clients don't see any difference.
+	 */
+	private static Map<String, String> getHeaders(Config config, long tokensLeft) {
+		return Map.of(
+				RedisRateLimiter.REMAINING_HEADER, String.valueOf(tokensLeft),
+				RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+				RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()),
+				RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+	}
+
+	private int shardOf(String bucketKey) {
+		return Math.floorMod(bucketKey.hashCode(), shards);
+	}
+
+	/**
+	 * Returns the Redis key of the counter of a bucket, in the shard the bucket key hashes to.
+	 */
+	String redisKey(String bucketKey) {
+		return REDIS_KEY_PREFIX + "{" + shardOf(bucketKey) + "}:" + bucketKey;
+	}
+
+	/**
+	 * Synchronizes the buckets in memory that are due with Redis, with one script call per shard. The calls are sent
+	 * without waiting for each other's reply, so that Lettuce writes them to the connection as a pipeline. Buckets
+	 * no longer used locally are synchronized with zero local tokens every refreshInterval, to learn about the tokens
+	 * consumed on the other instances.
+	 */
+	Mono<Void> synchronize() {
+		long now = System.nanoTime();
+		Map<Integer, List<Map.Entry<String, TokenBucket>>> bucketsByShard = buckets.asMap().entrySet().stream()
+				.filter(entry -> entry.getValue().isSyncDue(now, refreshInterval))
+				.collect(Collectors.groupingBy(entry -> shardOf(entry.getKey())));
+
+		return Flux.fromIterable(bucketsByShard.values())
+				.flatMap(shardBuckets -> Flux.fromIterable(shardBuckets).buffer(MAX_KEYS_PER_CALL))
+				.flatMap(shardBuckets -> synchronize(shardBuckets, now))
+				.reduce(0, Integer::sum)
+				.doOnNext(failures -> {
+					if (failures > 0) {
+						LOGGER.warn("Rate limiter synchronization with Redis failed for {} buckets", failures);
+					}
+				})
+				.then();
+	}
+
+	/**
+	 * Synchronizes buckets of the same shard and returns the number of buckets that could not be synchronized.
+	 */
+	@SuppressWarnings("unchecked")
+	private Mono<Integer> synchronize(List<Map.Entry<String, TokenBucket>> shardBuckets, long now) {
+		List<String> keys = new ArrayList<>(shardBuckets.size());
+		List<String> args = new ArrayList<>(shardBuckets.size() + 1);
+		long[] localTokens = new long[shardBuckets.size()];
+		for (int i = 0; i < shardBuckets.size(); i++) {
+			localTokens[i] = shardBuckets.get(i).getValue().takeUnsyncedTokens();
+			keys.add(redisKey(shardBuckets.get(i).getKey()));
+			args.add(String.valueOf(localTokens[i]));
+		}
+		args.add(String.valueOf(idleTimeout.toMillis()));
+
+		// Deferred so that a failure to get a connection is handled below instead of ending the synchronization
+		return Flux.defer(() -> redisTemplate.execute(SYNC_SCRIPT, keys, args))
+				.reduce(new ArrayList<Long>(), (totals, result) -> {
+					totals.addAll((List<Long>) result);
+					return totals;
+				})
+				.map(totals -> {
+					for (int i = 0; i < shardBuckets.size(); i++) {
+						shardBuckets.get(i).getValue().synchronize(localTokens[i], totals.get(i), now);
+					}
+					return 0;
+				})
+				.onErrorResume(exception -> {
+					// The tokens are sent again on the next round
+					for (int i = 0; i < shardBuckets.size(); i++) {
+						shardBuckets.get(i).getValue().restoreUnsyncedTokens(localTokens[i]);
+					}
+					LOGGER.debug("Rate limiter synchronization of {} buckets failed", shardBuckets.size(), exception);
+					return Mono.just(shardBuckets.size());
+				});
+	}
+
+	@Override
+	public void destroy() {
+		if (synchronization != null) {
+			synchronization.dispose();
+		}
+	}
+
+	@Validated
+	public static class Config {
+
+		@Min(1)
+		private int replenishRate;
+
+		@Min(0)
+		private int burstCapacity = 1;
+
+		@Min(1)
+		private int requestedTokens = 1;
+
+		public int getReplenishRate() {
+			return replenishRate;
+		}
+
+		public Config setReplenishRate(int replenishRate) {
+			this.replenishRate = replenishRate;
+			return this;
+		}
+
+		public int getBurstCapacity() {
+			return burstCapacity;
+		}
+
+		public Config setBurstCapacity(int burstCapacity) {
+			this.burstCapacity = burstCapacity;
+			return this;
+		}
+
+		public int getRequestedTokens() {
+			return requestedTokens;
+		}
+
+		public Config setRequestedTokens(int requestedTokens) {
+			this.requestedTokens = requestedTokens;
+			return this;
+		}
+
+		@Override
+		public String toString() {
+			return "Config{replenishRate=" + replenishRate + ", burstCapacity=" + burstCapacity + ", requestedTokens="
+					+ requestedTokens + "}";
+		}
+
+	}
+
+}
@@ -0,0 +1,11 @@
+package pk.training.basit.polarbookshop.edgeservice.ratelimit;
+
+/**
+ * The request attributes a rate limit bucket can be keyed on.
+ */
+public enum RateLimitKeyType {
+	API_KEY,		// The API key sent in the configured header
+	SESSION,		// The identifier of the existing web session, stored in Redis
+	CLIENT_IP,		// The address of the client, taken from X-Forwarded-For behind the ingress (server.forward-headers-strategy)
+	ROUTE			// None, all the clients of a route share the same bucket
+}
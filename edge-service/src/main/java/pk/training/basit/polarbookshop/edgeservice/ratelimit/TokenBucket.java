@@ -0,0 +1,102 @@
+package pk.training.basit.polarbookshop.edgeservice.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A token bucket updated with compare-and-set, so that concurrent requests never block each other. Tokens are
+ * added lazily, based on the time elapsed since the last update, instead of by a background task.
+ *
+ * The bucket also counts the tokens consumed since they were last reported to Redis, and can be drained of the
+ * tokens consumed on the other instances of Edge Service.
+ */
+class TokenBucket {
+
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private record State(double tokens, long updatedAt) {
+	}
+
+	private final AtomicReference<State> state;
+	private final AtomicLong unsyncedTokens = new AtomicLong();
+
+	// The total number of tokens consumed by all the instances, as of the last synchronization with Redis
+	private volatile long syncedTotal = -1;
+
+	// When the bucket was last synchronized with Redis, or created
+	private volatile long syncedAt;
+
+	TokenBucket(int burstCapacity, long now) {
+		this.state = new AtomicReference<>(new State(burstCapacity, now));
+		this.syncedAt = now;
+	}
+
+	/**
+	 * Consumes the requested tokens if available, and returns the number of tokens left. A negative number is
+	 * returned when there are not enough tokens, in which case none is consumed.
+	 */
+	long tryConsume(int requestedTokens, int replenishRate, int burstCapacity, long now) {
+		while (true) {
+			State current = state.get();
+			long elapsed = Math.max(0, now - current.updatedAt());
+			double tokens = Math.min(burstCapacity, current.tokens() + elapsed * replenishRate / NANOS_PER_SECOND);
+			boolean allowed = tokens >= requestedTokens;
+			State next = new State(allowed ? tokens - requestedTokens : tokens, Math.max(now, current.updatedAt()));
+			if (state.compareAndSet(current, next)) {
+				if (!allowed) {
+					return -1;
+				}
+				unsyncedTokens.addAndGet(requestedTokens);
+				return (long) next.tokens();
+			}
+		}
+	}
+
+	/**
+	 * Removes the tokens consumed elsewhere from the bucket, without going below zero.
+	 */
+	void drain(long tokens) {
+		state.updateAndGet(current -> new State(Math.max(0, current.tokens() - tokens), current.updatedAt()));
+	}
+
+	/**
+	 * Tells whether the bucket has to be synchronized with Redis: as soon as tokens were consumed locally, or else
+	 * once refreshInterval has elapsed since the last synchronization, to learn about the tokens consumed elsewhere.
+	 */
+	boolean isSyncDue(long now, long refreshInterval) {
+		return unsyncedTokens.get() > 0 || now - syncedAt >= refreshInterval;
+	}
+
+	/**
+	 * Returns the tokens consumed since the last call, which are then considered synchronized.
+	 */
+	long takeUnsyncedTokens() {
+		return unsyncedTokens.getAndSet(0);
+	}
+
+	/**
+	 * Gives back tokens returned by takeUnsyncedTokens() that could not be synchronized, to retry later.
+	 */
+	void restoreUnsyncedTokens(long tokens) {
+		unsyncedTokens.addAndGet(tokens);
+	}
+
+	/**
+	 * Records the total returned by Redis after adding the given local tokens to it, and drains the tokens that the
+	 * other instances consumed since the previous synchronization. Nothing is drained on the first synchronization
+	 * or when the total went backwards, because the Redis key expired in the meantime.
+	 */
+	void synchronize(long localTokens, long total, long now) {
+		long previousTotal = syncedTotal;
+		syncedTotal = total;
+		syncedAt = now;
+		if (previousTotal >= 0) {
+			long remoteTokens = total - previousTotal - localTokens;
+			if (remoteTokens > 0) {
+				drain(remoteTokens);
+			}
+		}
+	}
+
+}
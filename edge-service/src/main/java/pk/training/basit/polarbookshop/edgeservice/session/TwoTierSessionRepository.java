@@ -0,0 +1,324 @@
+package pk.training.basit.polarbookshop.edgeservice.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import reactor.core.publisher.Mono;
+
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.session.MapSession;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.Session;
+
+/**
+ * Session repository keeping the recently used sessions in memory (L1) in front of Redis (L2), so that the
+ * SaveSession filter doesn't cost Redis round trips on every request.
+ *
+ * A session is read from Redis once, and then from memory for localTimeToLive. It's written back to Redis only when
+ * its attributes, maximum inactive interval or id changed. The lastAccessedTime updated by every request is written
+ * at most once per lastAccessedTimeFlushInterval, and the Redis key is kept for that long after the maximum inactive
+ * interval, so that it never expires before the session does.
+ *
+ * The sessions are stored in Redis with the same hash layout as ReactiveRedisSessionRepository, so both can read
+ * the sessions written by the other. Several instances of Edge Service see the changes made by another one once
+ * the local copy expires, after localTimeToLive at most, and see a lastAccessedTime up to
+ * lastAccessedTimeFlushInterval old.
+ */
+public class TwoTierSessionRepository implements ReactiveSessionRepository<TwoTierSessionRepository.TwoTierSession> {
+
+	static final String CREATION_TIME_KEY = "creationTime";
+	static final String LAST_ACCESSED_TIME_KEY = "lastAccessedTime";
+	static final String MAX_INACTIVE_INTERVAL_KEY = "maxInactiveInterval";
+	static final String ATTRIBUTE_PREFIX = "sessionAttr:";
+
+	/**
+	 * The session as last read from or written to Redis, and the lastAccessedTime stored in Redis. The MapSession is
+	 * never handed out: every request gets its own copy.
+	 */
+	private record CachedSession(MapSession session, Instant persistedLastAccessedTime) {
+	}
+
+	private final ReactiveRedisOperations<String, Object> sessionRedisOperations;
+	private final String namespace;
+	private final Duration defaultMaxInactiveInterval;
+	private final Duration lastAccessedTimeFlushInterval;
+	private final Cache<String, CachedSession> localSessions;
+
+	public TwoTierSessionRepository(ReactiveRedisOperations<String, Object> sessionRedisOperations, String namespace,
+			Duration defaultMaxInactiveInterval, long localMaximumSize, Duration localTimeToLive,
+			Duration lastAccessedTimeFlushInterval) {
+		this.sessionRedisOperations = sessionRedisOperations;
+		this.namespace = namespace + ":";
+		this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+		this.lastAccessedTimeFlushInterval = lastAccessedTimeFlushInterval;
+		this.localSessions = Caffeine.newBuilder()
+				.maximumSize(localMaximumSize)
+				.expireAfter(expireAfterCreate(localTimeToLive))
+				.build();
+	}
+
+	/**
+	 * The local copy of a session is updated by every request, so it must expire localTimeToLive after it was read
+	 * from Redis rather than after it was last written, for the changes made by other instances to be seen.
+	 */
+	private static Expiry<String, CachedSession> expireAfterCreate(Duration timeToLive) {
+		return new Expiry<>() {
+
+			@Override
+			public long expireAfterCreate(String id, CachedSession cachedSession, long currentTime) {
+				return timeToLive.toNanos();
+			}
+
+			@Override
+			public long expireAfterUpdate(String id, CachedSession cachedSession, long currentTime,
+					long currentDuration) {
+				return currentDuration;
+			}
+
+			@Override
+			public long expireAfterRead(String id, CachedSession cachedSession, long currentTime,
+					long currentDuration) {
+				return currentDuration;
+			}
+
+		};
+	}
+
+	@Override
+	public Mono<TwoTierSession> createSession() {
+		return Mono.fromSupplier(() -> {
+			MapSession session = new MapSession();
+			session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+			return new TwoTierSession(session, null, true);
+		});
+	}
+
+	@Override
+	public Mono<TwoTierSession> findById(String id) {
+		return Mono.defer(() -> {
+			CachedSession cachedSession = localSessions.getIfPresent(id);
+			if (cachedSession != null) {
+				if (cachedSession.session().isExpired()) {
+					return deleteById(id).then(Mono.empty());
+				}
+				return Mono.just(new TwoTierSession(new MapSession(cachedSession.session()),
+						cachedSession.persistedLastAccessedTime(), false));
+			}
+
+			return sessionRedisOperations.opsForHash().entries(sessionKey(id))
+					.collectMap(entry -> (String) entry.getKey(), Map.Entry::getValue)
+					.filter(entries -> !entries.isEmpty())
+					.map(entries -> toMapSession(id, entries))
+					.filter(session -> !session.isExpired())
+					.map(session -> {
+						localSessions.put(id, new CachedSession(new MapSession(session), session.getLastAccessedTime()));
+						return new TwoTierSession(session, session.getLastAccessedTime(), false);
+					})
+					.switchIfEmpty(Mono.defer(() -> deleteById(id).then(Mono.empty())));
+		});
+	}
+
+	/**
+	 * Writes to Redis what changed since the session was read, if anything, and keeps the session in memory. Like
+	 * ReactiveRedisSessionRepository, a session deleted from Redis in the meantime, by another instance of Edge
+	 * Service, isn't written back.
+	 */
+	@Override
+	public Mono<Void> save(TwoTierSession session) {
+		return Mono.defer(() -> {
+			Map<String, Object> changes = session.changes(lastAccessedTimeFlushInterval);
+			if (changes.isEmpty()) {
+				cache(session);
+				return Mono.empty();
+			}
+
+			String sessionKey = sessionKey(session.getId());
+			Mono<Void> write = Mono.defer(() -> sessionRedisOperations.opsForHash().putAll(sessionKey, changes))
+					.then(Mono.defer(() -> sessionRedisOperations.expire(sessionKey,
+							session.getMaxInactiveInterval().plus(lastAccessedTimeFlushInterval))))
+					.then(Mono.fromRunnable(() -> {
+						session.saved(changes);
+						cache(session);
+					}));
+			if (session.isNew) {
+				return write;
+			}
+
+			Mono<Boolean> exists = session.hasChangedSessionId()
+					? sessionRedisOperations.rename(sessionKey(session.originalSessionId), sessionKey)
+							.doOnSuccess(renamed -> localSessions.invalidate(session.originalSessionId))
+							.onErrorResume(TwoTierSessionRepository::isNoSuchKey, exception -> Mono.just(false))
+					: sessionRedisOperations.hasKey(sessionKey);
+			return exists.flatMap(present -> present
+					? write
+					: Mono.error(new IllegalStateException("Session was invalidated")));
+		});
+	}
+
+	@Override
+	public Mono<Void> deleteById(String id) {
+		return Mono.defer(() -> {
+			localSessions.invalidate(id);
+			return sessionRedisOperations.delete(sessionKey(id)).then();
+		});
+	}
+
+	private void cache(TwoTierSession session) {
+		localSessions.put(session.getId(),
+				new CachedSession(new MapSession(session.session), session.persistedLastAccessedTime));
+	}
+
+	// Returned by RENAME when the session was deleted under its original id
+	private static boolean isNoSuchKey(Throwable exception) {
+		return exception.getMessage() != null && exception.getMessage().contains("ERR no such key");
+	}
+
+	private String sessionKey(String id) {
+		return namespace + "sessions:" + id;
+	}
+
+	private static MapSession toMapSession(String id, Map<String, Object> entries) {
+		MapSession session = new MapSession(id);
+		entries.forEach((key, value) -> {
+			if (value == null) {
+				return;
+			}
+			switch (key) {
+				case CREATION_TIME_KEY -> session.setCreationTime(Instant.ofEpochMilli((long) value));
+				case LAST_ACCESSED_TIME_KEY -> session.setLastAccessedTime(Instant.ofEpochMilli((long) value));
+				case MAX_INACTIVE_INTERVAL_KEY -> session.setMaxInactiveInterval(Duration.ofSeconds((int) value));
+				default -> {
+					if (key.startsWith(ATTRIBUTE_PREFIX)) {
+						session.setAttribute(key.substring(ATTRIBUTE_PREFIX.length()), value);
+					}
+				}
+			}
+		});
+		return session;
+	}
+
+	/**
+	 * The session of a request, which records the changes to write to Redis. Attributes are written when set or
+	 * removed, like with the default ON_SET_ATTRIBUTE save mode of Spring Session: an attribute value changed in
+	 * place must be set again to be saved.
+	 */
+	public static final class TwoTierSession implements Session {
+
+		private final MapSession session;
+		private final Map<String, Object> delta = new HashMap<>();
+		private boolean isNew;
+		private String originalSessionId;
+		private Instant persistedLastAccessedTime;
+
+		TwoTierSession(MapSession session, Instant persistedLastAccessedTime, boolean isNew) {
+			this.session = session;
+			this.persistedLastAccessedTime = persistedLastAccessedTime;
+			this.isNew = isNew;
+			this.originalSessionId = session.getId();
+			if (isNew) {
+				delta.put(CREATION_TIME_KEY, session.getCreationTime().toEpochMilli());
+				delta.put(MAX_INACTIVE_INTERVAL_KEY, (int) session.getMaxInactiveInterval().getSeconds());
+			}
+		}
+
+		@Override
+		public String getId() {
+			return session.getId();
+		}
+
+		@Override
+		public String changeSessionId() {
+			return session.changeSessionId();
+		}
+
+		@Override
+		public <T> T getAttribute(String attributeName) {
+			return session.getAttribute(attributeName);
+		}
+
+		@Override
+		public Set<String> getAttributeNames() {
+			return session.getAttributeNames();
+		}
+
+		@Override
+		public void setAttribute(String attributeName, Object attributeValue) {
+			session.setAttribute(attributeName, attributeValue);
+			delta.put(ATTRIBUTE_PREFIX + attributeName, attributeValue);
+		}
+
+		@Override
+		public void removeAttribute(String attributeName) {
+			session.removeAttribute(attributeName);
+			delta.put(ATTRIBUTE_PREFIX + attributeName, null);
+		}
+
+		@Override
+		public Instant getCreationTime() {
+			return session.getCreationTime();
+		}
+
+		@Override
+		public void setLastAccessedTime(Instant lastAccessedTime) {
+			session.setLastAccessedTime(lastAccessedTime);
+		}
+
+		@Override
+		public Instant getLastAccessedTime() {
+			return session.getLastAccessedTime();
+		}
+
+		@Override
+		public void setMaxInactiveInterval(Duration interval) {
+			session.setMaxInactiveInterval(interval);
+			delta.put(MAX_INACTIVE_INTERVAL_KEY, (int) interval.getSeconds());
+		}
+
+		@Override
+		public Duration getMaxInactiveInterval() {
+			return session.getMaxInactiveInterval();
+		}
+
+		@Override
+		public boolean isExpired() {
+			return session.isExpired();
+		}
+
+		boolean hasChangedSessionId() {
+			return !getId().equals(originalSessionId);
+		}
+
+		/**
+		 * The fields to write to Redis: the ones changed, and the lastAccessedTime when the one in Redis is older
+		 * than flushInterval. A new session or a changed id is always written, in full for a new session.
+		 */
+		Map<String, Object> changes(Duration flushInterval) {
+			Map<String, Object> changes = new HashMap<>(delta);
+			if (isNew || hasChangedSessionId() || !changes.isEmpty() || persistedLastAccessedTime == null
+					|| !getLastAccessedTime().isBefore(persistedLastAccessedTime.plus(flushInterval))) {
+				changes.put(LAST_ACCESSED_TIME_KEY, getLastAccessedTime().toEpochMilli());
+			}
+			if (isNew) {
+				getAttributeNames().forEach(name -> changes.put(ATTRIBUTE_PREFIX + name, getAttribute(name)));
+			}
+			return changes;
+		}
+
+		void saved(Map<String, Object> changes) {
+			changes.keySet().forEach(delta::remove);
+			if (changes.containsKey(LAST_ACCESSED_TIME_KEY)) {
+				persistedLastAccessedTime = getLastAccessedTime();
+			}
+			isNew = false;
+			originalSessionId = getId();
+		}
+
+	}
+
+}
@@ -1,9 +1,12 @@
 package pk.training.basit.polarbookshop.edgeservice.web;
 
+import pk.training.basit.polarbookshop.edgeservice.cache.CachedResponse;
+import pk.training.basit.polarbookshop.edgeservice.cache.ResponseCache;
 import reactor.core.publisher.Mono;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
@@ -21,14 +24,29 @@ public class WebEndpoints {
 	 * requests returns an HTTP 503 error. In a real scenario, you might want to adopt different fallback strategies
 	 * depending on the context, including throwing a custom exception to be handled from the client or returning
 	 * the last value saved in the cache for the original request.
+	 *
+	 * The GET fallback returns the last response cached by the ResponseCache filter for the original request,
+	 * however stale, and only falls back to an empty string when there is none.
 	 */
 	@Bean
-	public RouterFunction<ServerResponse> routerFunction() {
+	public RouterFunction<ServerResponse> routerFunction(ResponseCache responseCache) {
 
 		// Offers a fluent API to build routes
 		return RouterFunctions.route()
 				// Fallback response used to handle the GET endpoint
-				.GET("/catalog-fallback", request -> ServerResponse.ok().body(Mono.just(""), String.class))
+				.GET("/catalog-fallback", request -> {
+					String cacheKey = request.exchange().getAttribute(ResponseCache.CACHE_KEY_ATTR);
+					CachedResponse cached = cacheKey != null ? responseCache.get(cacheKey) : null;
+					if (cached == null) {
+						return ServerResponse.ok().body(Mono.just(""), String.class);
+					}
+					return ServerResponse.ok()
+							.headers(headers -> {
+								headers.putAll(cached.headers());
+								headers.set(HttpHeaders.AGE, String.valueOf(cached.age(System.nanoTime())));
+							})
+							.bodyValue(cached.body());
+				})
 				// Fallback response used to handle the POST endpoint
 				.POST("/catalog-fallback", request -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).build())
 				// Builds the functional endpoints
@@ -0,0 +1,177 @@
+package pk.training.basit.polarbookshop.edgeservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheGatewayFilterFactoryTests {
+
+	private static final String BOOKS = "[{\"isbn\":\"1234567891\"}]";
+
+	private final ResponseCache responseCache = new ResponseCache(DataSize.ofMegabytes(1), Duration.ofMinutes(1),
+			Duration.ofMinutes(10));
+	private final GatewayFilter filter = new ResponseCacheGatewayFilterFactory(responseCache).apply(new Object());
+
+	// The requests received by the downstream service
+	private final List<ServerWebExchange> forwarded = new ArrayList<>();
+
+	@Test
+	void whenResponseFreshThenServedFromCache() {
+		GatewayFilterChain catalog = respond(HttpStatus.OK, "\"1\"", null, BOOKS);
+
+		var first = get("/books");
+		filter.filter(first, catalog).block();
+		var second = get("/books");
+		filter.filter(second, catalog).block();
+
+		assertThat(forwarded).hasSize(1);
+		assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+		assertThat(second.getResponse().getHeaders().getETag()).isEqualTo("\"1\"");
+		assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("0");
+	}
+
+	@Test
+	void whenClientHoldsCachedVersionThenNotModified() {
+		filter.filter(get("/books"), respond(HttpStatus.OK, "\"1\"", null, BOOKS)).block();
+
+		var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/books")
+				.accept(MediaType.APPLICATION_JSON)
+				.ifNoneMatch("\"1\""));
+		filter.filter(exchange, respond(HttpStatus.OK, "\"1\"", null, BOOKS)).block();
+
+		assertThat(forwarded).hasSize(1);
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+	}
+
+	@Test
+	void whenResponseStaleThenRevalidatedWithETag() {
+		filter.filter(get("/books"), respond(HttpStatus.OK, "\"1\"", "max-age=0", BOOKS)).block();
+
+		var exchange = get("/books");
+		filter.filter(exchange, respond(HttpStatus.NOT_MODIFIED, "\"1\"", null, null)).block();
+
+		assertThat(forwarded).hasSize(2);
+		assertThat(forwarded.get(1).getRequest().getHeaders().getIfNoneMatch()).containsExactly("\"1\"");
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+
+		// The 304 made the response fresh again, for the default time to live
+		filter.filter(get("/books"), respond(HttpStatus.OK, "\"1\"", null, BOOKS)).block();
+		assertThat(forwarded).hasSize(2);
+	}
+
+	@Test
+	void whenNoStoreThenNotCached() {
+		GatewayFilterChain catalog = respond(HttpStatus.OK, "\"1\"", "no-store", BOOKS);
+
+		filter.filter(get("/books"), catalog).block();
+		filter.filter(get("/books"), catalog).block();
+
+		assertThat(forwarded).hasSize(2);
+	}
+
+	@Test
+	void whenDifferentQueryThenCachedSeparately() {
+		filter.filter(get("/books?page=0"), respond(HttpStatus.OK, "\"1\"", null, BOOKS)).block();
+		filter.filter(get("/books?page=1"), respond(HttpStatus.OK, "\"2\"", null, "[]")).block();
+
+		var exchange = get("/books?page=1");
+		filter.filter(exchange, respond(HttpStatus.OK, "\"2\"", null, "[]")).block();
+
+		assertThat(forwarded).hasSize(2);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("[]");
+	}
+
+	@Test
+	void whenPostThenNotCached() {
+		GatewayFilterChain catalog = respond(HttpStatus.OK, "\"1\"", null, BOOKS);
+
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/books")), catalog).block();
+		var exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/books"));
+		filter.filter(exchange, catalog).block();
+
+		assertThat(forwarded).hasSize(2);
+		assertThat(exchange.getAttributes()).doesNotContainKey(ResponseCache.CACHE_KEY_ATTR);
+	}
+
+	@Test
+	void whenResourceChangedThenCachedResponsesInvalidated() {
+		filter.filter(get("/books/1234567891"), respond(HttpStatus.OK, "\"1\"", null, BOOKS)).block();
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/books/1234567891")
+				.accept(MediaType.ALL)), respond(HttpStatus.OK, "\"1\"", null, BOOKS)).block();
+		filter.filter(get("/books/1234567892"), respond(HttpStatus.OK, "\"2\"", null, BOOKS)).block();
+
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.put("/books/1234567891")),
+				respond(HttpStatus.OK, "\"3\"", null, BOOKS)).block();
+
+		// Both variants of the edited book are fetched again, the other book is still cached
+		filter.filter(get("/books/1234567891"), respond(HttpStatus.OK, "\"3\"", null, BOOKS)).block();
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/books/1234567891")
+				.accept(MediaType.ALL)), respond(HttpStatus.OK, "\"3\"", null, BOOKS)).block();
+		filter.filter(get("/books/1234567892"), respond(HttpStatus.OK, "\"2\"", null, BOOKS)).block();
+		assertThat(forwarded).hasSize(6);
+	}
+
+	@Test
+	void whenUnsafeRequestFailsThenCachedResponseKept() {
+		filter.filter(get("/books/1234567891"), respond(HttpStatus.OK, "\"1\"", null, BOOKS)).block();
+
+		filter.filter(MockServerWebExchange.from(MockServerHttpRequest.delete("/books/1234567891")),
+				respond(HttpStatus.INTERNAL_SERVER_ERROR, null, null, null)).block();
+
+		filter.filter(get("/books/1234567891"), respond(HttpStatus.OK, "\"1\"", null, BOOKS)).block();
+		assertThat(forwarded).hasSize(2);
+	}
+
+	@Test
+	void whenResponseVariesOnOtherHeaderThenNotCached() {
+		GatewayFilterChain catalog = exchange -> respond(HttpStatus.OK, "\"1\"", null, BOOKS).filter(exchange)
+				.doFirst(() -> exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.ACCEPT_LANGUAGE)));
+
+		filter.filter(get("/books"), catalog).block();
+		filter.filter(get("/books"), catalog).block();
+
+		assertThat(forwarded).hasSize(2);
+	}
+
+	private static MockServerWebExchange get(String uri) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get(uri).accept(MediaType.APPLICATION_JSON));
+	}
+
+	private GatewayFilterChain respond(HttpStatus status, String eTag, String cacheControl, String body) {
+		return exchange -> {
+			forwarded.add(exchange);
+			ServerHttpResponse response = exchange.getResponse();
+			response.setStatusCode(status);
+			response.getHeaders().setETag(eTag);
+			if (cacheControl != null) {
+				response.getHeaders().setCacheControl(cacheControl);
+			}
+			if (body == null) {
+				return response.writeWith(Mono.empty());
+			}
+			response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			return response.writeWith(Mono.just(response.bufferFactory()
+					.wrap(body.getBytes(StandardCharsets.UTF_8))));
+		};
+	}
+
+}
@@ -0,0 +1,50 @@
+package pk.training.basit.polarbookshop.edgeservice.configuration;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pk.training.basit.polarbookshop.edgeservice.ratelimit.LocalTokenBucketRateLimiter;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBindingProcessor;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeImageConfigurationTests {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	@BeforeEach
+	void registerHints() {
+		new NativeImageConfiguration.EdgeServiceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+		new RegisterReflectionForBindingProcessor().registerReflectionHints(hints.reflection(),
+				NativeImageConfiguration.class);
+	}
+
+	@Test
+	void whenRegisteredThenEveryConfigurationFileIsIncluded() throws IOException {
+		Resource[] configurationFiles = new PathMatchingResourcePatternResolver().getResources("classpath*:*.yml");
+		assertThat(configurationFiles).isNotEmpty();
+		for (Resource configurationFile : configurationFiles) {
+			assertThat(RuntimeHintsPredicates.resource().forResource(configurationFile.getFilename())).accepts(hints);
+		}
+	}
+
+	@Test
+	void whenRegisteredThenTheRateLimiterConfigurationCanBeBound() {
+		assertThat(RuntimeHintsPredicates.reflection()
+				.onMethod(LocalTokenBucketRateLimiter.Config.class, "setReplenishRate")).accepts(hints);
+	}
+
+	@Test
+	void whenRegisteredThenTheRetriedExceptionsCanBeLoaded() {
+		assertThat(RuntimeHintsPredicates.reflection().onType(IOException.class)).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(TimeoutException.class)).accepts(hints);
+	}
+
+}
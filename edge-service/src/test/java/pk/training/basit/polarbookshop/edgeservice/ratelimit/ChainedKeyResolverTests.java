@@ -0,0 +1,83 @@
+package pk.training.basit.polarbookshop.edgeservice.ratelimit;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.ForwardedHeaderTransformer;
+
+class ChainedKeyResolverTests {
+
+	private final ChainedKeyResolver keyResolver = new ChainedKeyResolver(
+			List.of(RateLimitKeyType.API_KEY, RateLimitKeyType.SESSION, RateLimitKeyType.CLIENT_IP), "X-API-Key");
+
+	@Test
+	void whenApiKeySentThenKeyedOnHashedApiKey() {
+		var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/books")
+				.header("X-API-Key", "secret")
+				.remoteAddress(new InetSocketAddress("10.0.0.1", 5000)));
+
+		StepVerifier.create(keyResolver.resolve(exchange))
+				.expectNextMatches(key -> key.startsWith("api-key:") && !key.contains("secret"))
+				.verifyComplete();
+	}
+
+	@Test
+	void whenNoApiKeyAndNoSessionThenKeyedOnClientAddress() {
+		var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/books")
+				.remoteAddress(new InetSocketAddress("10.0.0.1", 5000)));
+
+		StepVerifier.create(keyResolver.resolve(exchange))
+				.expectNext("ip:10.0.0.1")
+				.verifyComplete();
+	}
+
+	@Test
+	void whenForwardedByIngressThenKeyedOnEachClientAddress() {
+		StepVerifier.create(keyResolver.resolve(forwardedByIngress("203.0.113.7")))
+				.expectNext("ip:203.0.113.7")
+				.verifyComplete();
+		StepVerifier.create(keyResolver.resolve(forwardedByIngress("198.51.100.23")))
+				.expectNext("ip:198.51.100.23")
+				.verifyComplete();
+	}
+
+	@Test
+	void whenSessionStartedThenKeyedOnSession() {
+		var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/books")
+				.remoteAddress(new InetSocketAddress("10.0.0.1", 5000)));
+		var session = exchange.getSession().block();
+		session.start();
+
+		StepVerifier.create(keyResolver.resolve(exchange))
+				.expectNext("session:" + session.getId())
+				.verifyComplete();
+	}
+
+	@Test
+	void whenNothingResolvedThenAnonymous() {
+		var routeOnlyResolver = new ChainedKeyResolver(List.of(RateLimitKeyType.API_KEY), "X-API-Key");
+		var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/books"));
+
+		StepVerifier.create(routeOnlyResolver.resolve(exchange))
+				.expectNext(ChainedKeyResolver.ANONYMOUS_KEY)
+				.verifyComplete();
+	}
+
+	// A request from the ingress, with the client behind it resolved by the forward headers strategy
+	private static ServerWebExchange forwardedByIngress(String clientAddress) {
+		var request = MockServerHttpRequest.get("/books")
+				.header("X-Forwarded-For", clientAddress)
+				.remoteAddress(new InetSocketAddress("10.0.0.1", 5000))
+				.build();
+		return MockServerWebExchange.from(request).mutate()
+				.request(new ForwardedHeaderTransformer().apply(request))
+				.build();
+	}
+
+}
@@ -0,0 +1,97 @@
+package pk.training.basit.polarbookshop.edgeservice.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.test.StepVerifier;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Activates automatic startup and cleanup of test containers
+@Testcontainers
+class LocalTokenBucketRateLimiterRedisTests {
+
+	private static final int REDIS_PORT = 6379;
+
+	// Defines a Redis container for testing
+	@Container
+	static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7.2"))
+			.withExposedPorts(REDIS_PORT);
+
+	private LettuceConnectionFactory connectionFactory;
+	private ReactiveStringRedisTemplate redisTemplate;
+
+	@BeforeEach
+	void setup() {
+		this.connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(REDIS_PORT));
+		this.connectionFactory.afterPropertiesSet();
+		this.redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+	}
+
+	@AfterEach
+	void clean() {
+		this.connectionFactory.destroy();
+	}
+
+	private LocalTokenBucketRateLimiter rateLimiter() {
+		var configurationService = new ConfigurationService(new DefaultListableBeanFactory(),
+				DefaultConversionService::getSharedInstance, () -> null);
+		var rateLimiter = new LocalTokenBucketRateLimiter(configurationService, Duration.ofMinutes(1), Map.of(),
+				redisTemplate, Duration.ofHours(1), Duration.ZERO, 4);	// Synchronized by hand in the tests
+		rateLimiter.getConfig().put("catalog-route", new LocalTokenBucketRateLimiter.Config()
+				.setReplenishRate(1)
+				.setBurstCapacity(4));
+		return rateLimiter;
+	}
+
+	@Test
+	void whenTokensConsumedOnOtherInstanceThenDrainedAfterSynchronization() {
+		var instance = rateLimiter();
+		var otherInstance = rateLimiter();
+
+		instance.isAllowed("catalog-route", "ip:10.0.0.1").block();
+		otherInstance.isAllowed("catalog-route", "ip:10.0.0.1").block();
+		StepVerifier.create(instance.synchronize().then(otherInstance.synchronize())).verifyComplete();
+
+		// The other instance consumes 2 more tokens, so the 4 tokens of the burst capacity are used up overall
+		otherInstance.isAllowed("catalog-route", "ip:10.0.0.1").block();
+		otherInstance.isAllowed("catalog-route", "ip:10.0.0.1").block();
+		StepVerifier.create(otherInstance.synchronize().then(instance.synchronize())).verifyComplete();
+
+		StepVerifier.create(instance.isAllowed("catalog-route", "ip:10.0.0.1"))
+				.expectNextMatches(response -> !response.isAllowed())
+				.verifyComplete();
+
+		assertThat(redisTemplate.opsForValue().get(instance.redisKey("catalog-route:ip:10.0.0.1")).block())
+				.isEqualTo("4");
+	}
+
+	@Test
+	void whenBucketsInDifferentShardsThenAllSynchronized() {
+		var instance = rateLimiter();
+		for (int i = 0; i < 20; i++) {
+			instance.isAllowed("catalog-route", "ip:10.0.1." + i).block();
+		}
+
+		StepVerifier.create(instance.synchronize()).verifyComplete();
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(redisTemplate.opsForValue().get(instance.redisKey("catalog-route:ip:10.0.1." + i)).block())
+					.isEqualTo("1");
+		}
+	}
+
+}
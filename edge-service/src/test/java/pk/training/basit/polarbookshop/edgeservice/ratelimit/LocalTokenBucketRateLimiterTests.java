@@ -0,0 +1,128 @@
+package pk.training.basit.polarbookshop.edgeservice.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class LocalTokenBucketRateLimiterTests {
+
+	private ConfigurationService configurationService;
+	private LocalTokenBucketRateLimiter rateLimiter;
+
+	@BeforeEach
+	void setup() {
+		this.configurationService = new ConfigurationService(new DefaultListableBeanFactory(),
+				DefaultConversionService::getSharedInstance, () -> null);
+		var routeConfigs = Map.of("order-route", new LocalTokenBucketRateLimiter.Config()
+				.setReplenishRate(1)
+				.setBurstCapacity(1));
+		this.rateLimiter = new LocalTokenBucketRateLimiter(configurationService, Duration.ofMinutes(1), routeConfigs);
+		this.rateLimiter.getConfig().put("catalog-route", new LocalTokenBucketRateLimiter.Config()
+				.setReplenishRate(1)
+				.setBurstCapacity(2));
+	}
+
+	@Test
+	void whenBurstExceededThenRequestDenied() {
+		StepVerifier.create(rateLimiter.isAllowed("catalog-route", "anonymous"))
+				.expectNextMatches(response -> response.isAllowed()
+						&& response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER).equals("1"))
+				.verifyComplete();
+		StepVerifier.create(rateLimiter.isAllowed("catalog-route", "anonymous"))
+				.expectNextMatches(response -> response.isAllowed())
+				.verifyComplete();
+		StepVerifier.create(rateLimiter.isAllowed("catalog-route", "anonymous"))
+				.expectNextMatches(response -> !response.isAllowed()
+						&& response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER).equals("0"))
+				.verifyComplete();
+	}
+
+	@Test
+	void whenDifferentKeysThenSeparateBuckets() {
+		rateLimiter.isAllowed("catalog-route", "anonymous").block();
+		rateLimiter.isAllowed("catalog-route", "anonymous").block();
+
+		StepVerifier.create(rateLimiter.isAllowed("catalog-route", "other"))
+				.expectNextMatches(response -> response.isAllowed())
+				.verifyComplete();
+	}
+
+	@Test
+	void whenRouteConfigGivenThenOverridesFilterConfig() {
+		rateLimiter.getConfig().put("order-route", new LocalTokenBucketRateLimiter.Config()
+				.setReplenishRate(10)
+				.setBurstCapacity(20));
+
+		StepVerifier.create(rateLimiter.isAllowed("order-route", "anonymous"))
+				.expectNextMatches(response -> response.isAllowed()
+						&& response.getHeaders().get(RedisRateLimiter.BURST_CAPACITY_HEADER).equals("1"))
+				.verifyComplete();
+		StepVerifier.create(rateLimiter.isAllowed("order-route", "anonymous"))
+				.expectNextMatches(response -> !response.isAllowed())
+				.verifyComplete();
+	}
+
+	@Test
+	void whenRouteNotConfiguredThenFail() {
+		assertThatThrownBy(() -> rateLimiter.isAllowed("unknown-route", "anonymous"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void whenNoTokenConsumedSinceLastRoundThenBucketNotSynchronized() {
+		// Answers every script call with a total of 1 per key, and records the keys sent
+		List<List<String>> synchronizedKeys = Collections.synchronizedList(new ArrayList<>());
+		var redisTemplate = mock(ReactiveStringRedisTemplate.class);
+		doAnswer(invocation -> {
+			List<String> keys = invocation.getArgument(1);
+			synchronizedKeys.add(keys);
+			return Flux.just(Collections.nCopies(keys.size(), 1L));
+		}).when(redisTemplate).execute(any(), anyList(), anyList());
+
+		var syncedRateLimiter = new LocalTokenBucketRateLimiter(configurationService, Duration.ofMinutes(1),
+				Map.of(), redisTemplate, Duration.ofHours(1), Duration.ofHours(1), 1);	// Synchronized by hand
+		syncedRateLimiter.getConfig().putAll(rateLimiter.getConfig());
+
+		syncedRateLimiter.isAllowed("catalog-route", "ip:10.0.0.1").block();
+		syncedRateLimiter.isAllowed("catalog-route", "ip:10.0.0.2").block();
+		syncedRateLimiter.synchronize().block();
+		syncedRateLimiter.isAllowed("catalog-route", "ip:10.0.0.2").block();
+		syncedRateLimiter.synchronize().block();
+		syncedRateLimiter.synchronize().block();
+
+		assertThat(synchronizedKeys).hasSize(2);
+		assertThat(synchronizedKeys.get(0)).containsExactlyInAnyOrder(
+				syncedRateLimiter.redisKey("catalog-route:ip:10.0.0.1"),
+				syncedRateLimiter.redisKey("catalog-route:ip:10.0.0.2"));
+		assertThat(synchronizedKeys.get(1)).containsExactly(syncedRateLimiter.redisKey("catalog-route:ip:10.0.0.2"));
+		syncedRateLimiter.destroy();
+	}
+
+	@Test
+	void whenNoShardThenFail() {
+		assertThatThrownBy(() -> new LocalTokenBucketRateLimiter(configurationService, Duration.ofMinutes(1), Map.of(),
+				mock(ReactiveStringRedisTemplate.class), Duration.ofHours(1), Duration.ofSeconds(5), 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
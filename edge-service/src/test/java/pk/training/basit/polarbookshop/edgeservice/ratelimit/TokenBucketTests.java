@@ -0,0 +1,74 @@
+package pk.training.basit.polarbookshop.edgeservice.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+	private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void whenBurstConsumedThenRejectUntilReplenished() {
+		var bucket = new TokenBucket(2, 0);
+
+		assertThat(bucket.tryConsume(1, 1, 2, 0)).isEqualTo(1);
+		assertThat(bucket.tryConsume(1, 1, 2, 0)).isZero();
+		assertThat(bucket.tryConsume(1, 1, 2, 0)).isNegative();
+
+		// One token is dripped in the bucket each second
+		assertThat(bucket.tryConsume(1, 1, 2, ONE_SECOND)).isZero();
+		assertThat(bucket.tryConsume(1, 1, 2, ONE_SECOND)).isNegative();
+	}
+
+	@Test
+	void whenIdleThenRefillUpToBurstCapacity() {
+		var bucket = new TokenBucket(2, 0);
+		bucket.tryConsume(2, 1, 2, 0);
+
+		assertThat(bucket.tryConsume(1, 1, 2, 10 * ONE_SECOND)).isEqualTo(1);
+	}
+
+	@Test
+	void whenSynchronizedThenTokensConsumedElsewhereDrained() {
+		var bucket = new TokenBucket(10, 0);
+		bucket.tryConsume(2, 1, 10, 0);
+
+		// First synchronization: the total only sets the baseline
+		long localTokens = bucket.takeUnsyncedTokens();
+		assertThat(localTokens).isEqualTo(2);
+		bucket.synchronize(localTokens, 50, 0);
+
+		// Another instance consumed 5 tokens meanwhile
+		bucket.tryConsume(1, 1, 10, 0);
+		localTokens = bucket.takeUnsyncedTokens();
+		bucket.synchronize(localTokens, 56, 0);
+
+		assertThat(bucket.tryConsume(1, 1, 10, 0)).isEqualTo(1);
+	}
+
+	@Test
+	void whenSynchronizationFailedThenTokensSentAgain() {
+		var bucket = new TokenBucket(10, 0);
+		bucket.tryConsume(3, 1, 10, 0);
+
+		bucket.restoreUnsyncedTokens(bucket.takeUnsyncedTokens());
+		bucket.tryConsume(1, 1, 10, 0);
+
+		assertThat(bucket.takeUnsyncedTokens()).isEqualTo(4);
+	}
+
+	@Test
+	void whenNoTokenConsumedThenSyncDueOnlyAfterRefreshInterval() {
+		var bucket = new TokenBucket(10, 0);
+		bucket.tryConsume(1, 1, 10, 0);
+		assertThat(bucket.isSyncDue(0, 5 * ONE_SECOND)).isTrue();
+
+		bucket.synchronize(bucket.takeUnsyncedTokens(), 1, ONE_SECOND);
+		assertThat(bucket.isSyncDue(5 * ONE_SECOND, 5 * ONE_SECOND)).isFalse();
+		assertThat(bucket.isSyncDue(6 * ONE_SECOND, 5 * ONE_SECOND)).isTrue();
+	}
+
+}
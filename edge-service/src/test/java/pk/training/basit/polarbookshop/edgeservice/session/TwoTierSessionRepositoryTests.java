@@ -0,0 +1,161 @@
+package pk.training.basit.polarbookshop.edgeservice.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+class TwoTierSessionRepositoryTests {
+
+	private static final String SESSION_KEY = "polar:edge:sessions:session-1";
+
+	private ReactiveRedisOperations<String, Object> redisOperations;
+	private ReactiveHashOperations<String, Object, Object> hashOperations;
+	private TwoTierSessionRepository sessionRepository;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setup() {
+		redisOperations = mock(ReactiveRedisOperations.class);
+		hashOperations = mock(ReactiveHashOperations.class);
+		given(redisOperations.<Object, Object>opsForHash()).willReturn(hashOperations);
+		given(hashOperations.putAll(anyString(), anyMap())).willReturn(Mono.just(true));
+		given(redisOperations.expire(anyString(), any(Duration.class))).willReturn(Mono.just(true));
+		given(redisOperations.hasKey(anyString())).willReturn(Mono.just(true));
+		given(redisOperations.delete(any(String[].class))).willReturn(Mono.just(1L));
+
+		sessionRepository = new TwoTierSessionRepository(redisOperations, "polar:edge", Duration.ofMinutes(10),
+				100, Duration.ofMinutes(1), Duration.ofSeconds(30));
+	}
+
+	private void givenStoredSession(Instant lastAccessedTime) {
+		given(hashOperations.entries(SESSION_KEY)).willReturn(Flux.fromIterable(Map.<Object, Object>of(
+				"creationTime", lastAccessedTime.minusSeconds(60).toEpochMilli(),
+				"lastAccessedTime", lastAccessedTime.toEpochMilli(),
+				"maxInactiveInterval", 600,
+				"sessionAttr:currency", "EUR").entrySet()));
+	}
+
+	@Test
+	void whenSessionFoundTwiceThenReadFromRedisOnce() {
+		givenStoredSession(Instant.now());
+
+		StepVerifier.create(sessionRepository.findById("session-1"))
+				.expectNextMatches(session -> "EUR".equals(session.getAttribute("currency")))
+				.verifyComplete();
+		StepVerifier.create(sessionRepository.findById("session-1"))
+				.expectNextMatches(session -> "EUR".equals(session.getAttribute("currency")))
+				.verifyComplete();
+
+		then(hashOperations).should(times(1)).entries(SESSION_KEY);
+	}
+
+	@Test
+	void whenSessionOnlyAccessedThenNotWrittenToRedis() {
+		givenStoredSession(Instant.now());
+		TwoTierSessionRepository.TwoTierSession session = sessionRepository.findById("session-1").block();
+		session.setLastAccessedTime(Instant.now());
+
+		StepVerifier.create(sessionRepository.save(session)).verifyComplete();
+
+		then(hashOperations).should(never()).putAll(anyString(), anyMap());
+		then(redisOperations).should(never()).hasKey(anyString());
+	}
+
+	@Test
+	void whenLastAccessedTimeOlderThanFlushIntervalThenWrittenToRedis() {
+		givenStoredSession(Instant.now().minusSeconds(45));
+		TwoTierSessionRepository.TwoTierSession session = sessionRepository.findById("session-1").block();
+		Instant lastAccessedTime = Instant.now();
+		session.setLastAccessedTime(lastAccessedTime);
+
+		StepVerifier.create(sessionRepository.save(session)).verifyComplete();
+
+		then(hashOperations).should().putAll(SESSION_KEY, Map.of("lastAccessedTime", lastAccessedTime.toEpochMilli()));
+		then(redisOperations).should().expire(SESSION_KEY, Duration.ofMinutes(10).plusSeconds(30));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void whenAttributeChangedThenOnlyChangesWrittenToRedis() {
+		givenStoredSession(Instant.now());
+		TwoTierSessionRepository.TwoTierSession session = sessionRepository.findById("session-1").block();
+		session.setAttribute("currency", "PKR");
+
+		StepVerifier.create(sessionRepository.save(session)).verifyComplete();
+
+		ArgumentCaptor<Map<String, Object>> changes = ArgumentCaptor.forClass(Map.class);
+		then(hashOperations).should().putAll(eq(SESSION_KEY), changes.capture());
+		assertThat(changes.getValue())
+				.containsEntry("sessionAttr:currency", "PKR")
+				.containsKey("lastAccessedTime")
+				.doesNotContainKeys("creationTime", "maxInactiveInterval");
+
+		StepVerifier.create(sessionRepository.findById("session-1"))
+				.expectNextMatches(cachedSession -> "PKR".equals(cachedSession.getAttribute("currency")))
+				.verifyComplete();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void whenNewSessionSavedThenWrittenInFull() {
+		TwoTierSessionRepository.TwoTierSession session = sessionRepository.createSession().block();
+		session.setAttribute("currency", "EUR");
+
+		StepVerifier.create(sessionRepository.save(session)).verifyComplete();
+
+		ArgumentCaptor<Map<String, Object>> changes = ArgumentCaptor.forClass(Map.class);
+		then(hashOperations).should().putAll(eq("polar:edge:sessions:" + session.getId()), changes.capture());
+		assertThat(changes.getValue())
+				.containsKeys("creationTime", "lastAccessedTime")
+				.containsEntry("maxInactiveInterval", 600)
+				.containsEntry("sessionAttr:currency", "EUR");
+		then(redisOperations).should(never()).hasKey(anyString());
+	}
+
+	@Test
+	void whenSessionDeletedFromRedisThenNotWrittenBack() {
+		givenStoredSession(Instant.now());
+		TwoTierSessionRepository.TwoTierSession session = sessionRepository.findById("session-1").block();
+		session.setAttribute("currency", "PKR");
+		given(redisOperations.hasKey(SESSION_KEY)).willReturn(Mono.just(false));
+
+		StepVerifier.create(sessionRepository.save(session))
+				.expectError(IllegalStateException.class)
+				.verify();
+		then(hashOperations).should(never()).putAll(anyString(), anyMap());
+	}
+
+	@Test
+	void whenSessionDeletedThenReadFromRedisAgain() {
+		givenStoredSession(Instant.now());
+		sessionRepository.findById("session-1").block();
+
+		StepVerifier.create(sessionRepository.deleteById("session-1")).verifyComplete();
+		given(hashOperations.entries(SESSION_KEY)).willReturn(Flux.empty());
+
+		StepVerifier.create(sessionRepository.findById("session-1")).verifyComplete();
+		then(hashOperations).should(times(2)).entries(SESSION_KEY);
+	}
+
+}
@@ -0,0 +1,73 @@
+package pk.training.basit.polarbookshop.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pk.training.basit.polarbookshop.loadtest.standin.CatalogStandIn;
+import pk.training.basit.polarbookshop.loadtest.standin.InMemoryRedisServer;
+import pk.training.basit.polarbookshop.loadtest.workload.LoadGenerator;
+import pk.training.basit.polarbookshop.loadtest.workload.LoadReport;
+
+/**
+ * Measures the chain of Edge Service, Order Service and Catalog Service. Edge Service and Order Service run from
+ * their jars, while their dependencies are replaced with local stand-ins that need no Docker:
+ *
+ *     - PostgreSQL runs from embedded binaries, for the orders of Order Service.
+ *     - Redis is replaced with an in-memory server, for the sessions of Edge Service.
+ *     - Catalog Service is replaced with a MockWebServer, behind both Edge Service and Order Service.
+ *
+ * The rate limits of Edge Service are raised so that they don't cap the throughput, and the synchronization of
+ * the rate limiter through Redis is disabled, as its Lua script can't run on the Redis stand-in. The rest of the
+ * configuration is the one the services ship with, response cache, circuit breakers and retries included.
+ */
+public class LoadTestApplication {
+
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+	private static final String UNLIMITED_RATE = "1000000";
+
+	public static void main(String[] args) throws Exception {
+		LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+		Path logDirectory = settings.reportDirectory();
+		int orderServicePort = ServiceProcess.freePort();
+		int edgeServicePort = ServiceProcess.freePort();
+
+		try (CatalogStandIn catalogService = CatalogStandIn.start(settings.catalogLatency());
+			 InMemoryRedisServer redis = InMemoryRedisServer.start();
+			 EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+			 ServiceProcess orderService = ServiceProcess.start("order-service", settings.orderServiceJar(),
+					 orderServicePort, settings.serviceJvmArgs(), List.of(
+							 "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+							 "--spring.r2dbc.username=postgres",
+							 "--spring.r2dbc.password=postgres",
+							 "--spring.flyway.url=jdbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+							 "--polar.catalog-service-uri=" + catalogService.uri()),
+					 Map.of(), logDirectory);
+			 ServiceProcess edgeService = ServiceProcess.start("edge-service", settings.edgeServiceJar(),
+					 edgeServicePort, settings.serviceJvmArgs(), List.of(
+							 "--spring.data.redis.port=" + redis.port(),
+							 "--polar.rate-limiter.redis-sync=false",
+							 "--polar.rate-limiter.routes.catalog-route.replenish-rate=" + UNLIMITED_RATE,
+							 "--polar.rate-limiter.routes.catalog-route.burst-capacity=" + UNLIMITED_RATE,
+							 "--polar.rate-limiter.routes.order-route.replenish-rate=" + UNLIMITED_RATE,
+							 "--polar.rate-limiter.routes.order-route.burst-capacity=" + UNLIMITED_RATE),
+					 Map.of("CATALOG_SERVICE_URL", catalogService.uri().toString().replaceAll("/$", ""),
+							 "ORDER_SERVICE_URL", "http://localhost:" + orderServicePort),
+					 logDirectory)) {
+			orderService.awaitReady(STARTUP_TIMEOUT);
+			edgeService.awaitReady(STARTUP_TIMEOUT);
+
+			LoadReport report = new LoadGenerator(settings, URI.create("http://localhost:" + edgeServicePort)).run();
+			report.print(System.out);
+			LOGGER.info("main() wrote the report to {}", report.writeCsv(settings.reportDirectory()));
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+package pk.training.basit.polarbookshop.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import pk.training.basit.polarbookshop.loadtest.workload.Route;
+
+/**
+ * Settings of a load test run, read from the polar.load-test.* system properties set by the loadTest Gradle task.
+ * Durations are written like in the configuration of the services, 30s or 500ms for instance.
+ */
+public record LoadTestSettings(
+
+	int users,
+
+	Duration duration,
+
+	Duration warmup,
+
+	Duration catalogLatency,
+
+	Map<Route, Integer> mix,
+
+	Path orderServiceJar,
+
+	Path edgeServiceJar,
+
+	List<String> serviceJvmArgs,
+
+	Path reportDirectory
+
+){
+
+	private static final String PREFIX = "polar.load-test.";
+
+	public static LoadTestSettings fromSystemProperties() {
+		return new LoadTestSettings(
+				Integer.parseInt(property("users", "32")),
+				parseDuration(property("duration", "60s")),
+				parseDuration(property("warmup", "15s")),
+				parseDuration(property("catalogLatency", "5ms")),
+				parseMix(property("mix", "browse:60,lookup:30,order:10")),
+				Path.of(requiredProperty("order-service-jar")),
+				Path.of(requiredProperty("edge-service-jar")),
+				List.of(property("serviceJvmArgs", "-Xmx512m").split("\\s+")),
+				Path.of(property("report-directory", "build/reports/load-test")));
+	}
+
+	private static String property(String name, String defaultValue) {
+		return System.getProperty(PREFIX + name, defaultValue);
+	}
+
+	private static String requiredProperty(String name) {
+		String value = System.getProperty(PREFIX + name);
+		if (value == null) {
+			throw new IllegalArgumentException("The system property " + PREFIX + name + " must be set.");
+		}
+		return value;
+	}
+
+	static Duration parseDuration(String value) {
+		String duration = value.trim().toLowerCase(Locale.ROOT);
+		if (duration.endsWith("ms")) {
+			return Duration.ofMillis(Long.parseLong(duration.substring(0, duration.length() - 2)));
+		}
+		if (duration.endsWith("s")) {
+			return Duration.ofSeconds(Long.parseLong(duration.substring(0, duration.length() - 1)));
+		}
+		if (duration.endsWith("m")) {
+			return Duration.ofMinutes(Long.parseLong(duration.substring(0, duration.length() - 1)));
+		}
+		return Duration.parse(value);
+	}
+
+	// browse:60,lookup:30,order:10 gives the relative weight of each route, routes left out aren't requested
+	static Map<Route, Integer> parseMix(String value) {
+		Map<Route, Integer> mix = new EnumMap<>(Route.class);
+		Arrays.stream(value.split(","))
+				.map(String::trim)
+				.filter(entry -> !entry.isEmpty())
+				.forEach(entry -> {
+					String[] nameAndWeight = entry.split(":");
+					mix.put(Route.fromName(nameAndWeight[0].trim()), Integer.parseInt(nameAndWeight[1].trim()));
+				});
+		if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+			throw new IllegalArgumentException("The workload mix must give a positive weight to a route: " + value);
+		}
+		return mix;
+	}
+
+}
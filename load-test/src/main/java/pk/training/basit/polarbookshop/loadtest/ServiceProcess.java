@@ -0,0 +1,135 @@
+package pk.training.basit.polarbookshop.loadtest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A service started from its executable jar in its own JVM, like in production, or from its native executable, with
+ * its output written to a log file of the report directory.
+ */
+public class ServiceProcess implements Closeable {
+
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private final String name;
+	private final int port;
+	private final Path logFile;
+	private final Process process;
+
+	private ServiceProcess(String name, int port, Path logFile, Process process) {
+		this.name = name;
+		this.port = port;
+		this.logFile = logFile;
+		this.process = process;
+	}
+
+	public static ServiceProcess start(String name, Path jar, int port, List<String> jvmArgs, List<String> args,
+			Map<String, String> environment, Path logDirectory) throws IOException {
+		if (!Files.isRegularFile(jar)) {
+			throw new IllegalArgumentException("The jar of " + name + " wasn't found at " + jar
+					+ ", build it with the bootJar task.");
+		}
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(jvmArgs);
+		command.add("-jar");
+		command.add(jar.toString());
+		return start(name, command, port, args, environment, logDirectory);
+	}
+
+	public static ServiceProcess startNative(String name, Path executable, int port, List<String> args,
+			Map<String, String> environment, Path logDirectory) throws IOException {
+		if (!Files.isExecutable(executable)) {
+			throw new IllegalArgumentException("The native executable of " + name + " wasn't found at " + executable
+					+ ", build it with the nativeCompile task.");
+		}
+		List<String> command = new ArrayList<>();
+		command.add(executable.toString());
+		return start(name, command, port, args, environment, logDirectory);
+	}
+
+	private static ServiceProcess start(String name, List<String> command, int port, List<String> args,
+			Map<String, String> environment, Path logDirectory) throws IOException {
+		command.add("--server.port=" + port);
+		command.addAll(args);
+
+		Files.createDirectories(logDirectory);
+		Path logFile = logDirectory.resolve(name + ".log");
+		ProcessBuilder processBuilder = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(logFile.toFile());
+		processBuilder.environment().putAll(environment);
+		LOGGER.info("start() starts {} on port {}", name, port);
+		return new ServiceProcess(name, port, logFile, processBuilder.start());
+	}
+
+	/**
+	 * Waits until the service accepts connections, which the embedded server only does once the application has
+	 * started. The port is polled every 20ms, so that the time to ready can be measured.
+	 */
+	public void awaitReady(Duration timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!process.isAlive()) {
+				throw new IllegalStateException(name + " exited with code " + process.exitValue() + ", see " + logFile);
+			}
+			try (Socket socket = new Socket()) {
+				socket.connect(new InetSocketAddress("localhost", port), 200);
+				LOGGER.info("awaitReady() ends, {} is ready", name);
+				return;
+			} catch (IOException exception) {
+				TimeUnit.MILLISECONDS.sleep(20);
+			}
+		}
+		throw new IllegalStateException(name + " wasn't ready after " + timeout + ", see " + logFile);
+	}
+
+	/**
+	 * Returns the resident set size of the service in KiB, read from /proc on Linux, or empty elsewhere.
+	 */
+	public OptionalLong residentSetSize() {
+		try {
+			return Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status")).stream()
+					.filter(line -> line.startsWith("VmRSS:"))
+					.mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+					.findFirst();
+		} catch (IOException exception) {
+			return OptionalLong.empty();
+		}
+	}
+
+	public static int freePort() throws IOException {
+		try (ServerSocket serverSocket = new ServerSocket(0)) {
+			return serverSocket.getLocalPort();
+		}
+	}
+
+	// Stops the service gracefully, which takes up to the 15s shutdown phase configured in the services
+	@Override
+	public void close() {
+		process.destroy();
+		try {
+			if (!process.waitFor(20, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+			}
+		} catch (InterruptedException exception) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
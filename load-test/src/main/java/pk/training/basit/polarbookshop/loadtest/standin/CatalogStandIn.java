@@ -0,0 +1,137 @@
+package pk.training.basit.polarbookshop.loadtest.standin;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Serves GET /books and GET /books/{isbn} like Catalog Service, from a fixed set of books rendered once, after a
+ * delay standing for the database query. Unknown books get a 404, like in Catalog Service.
+ */
+public class CatalogStandIn implements Closeable {
+
+	public static final int BOOKS = 200;
+	public static final int PAGE_SIZE = 20;
+	public static final int PAGES = BOOKS / PAGE_SIZE;
+
+	private static final long FIRST_ISBN = 1234567890L;
+	private static final String BOOKS_PATH = "/books";
+
+	private final MockWebServer mockWebServer = new MockWebServer();
+	private final Map<String, String> books = new LinkedHashMap<>();
+	private final String[] pages = new String[PAGES];
+	private final Duration latency;
+
+	private CatalogStandIn(Duration latency) throws JsonProcessingException {
+		this.latency = latency;
+		ObjectMapper objectMapper = new ObjectMapper();
+		List<Map<String, Object>> allBooks = IntStream.range(0, BOOKS).mapToObj(CatalogStandIn::book).toList();
+		for (Map<String, Object> book : allBooks) {
+			books.put((String) book.get("isbn"), objectMapper.writeValueAsString(book));
+		}
+		for (int page = 0; page < PAGES; page++) {
+			Map<String, Object> pagedResponse = new LinkedHashMap<>();
+			pagedResponse.put("content", allBooks.subList(page * PAGE_SIZE, (page + 1) * PAGE_SIZE));
+			pagedResponse.put("currentPage", page + 1);
+			pagedResponse.put("totalElements", BOOKS);
+			pagedResponse.put("totalPages", PAGES);
+			pagedResponse.put("hasNext", page < PAGES - 1);
+			pages[page] = objectMapper.writeValueAsString(pagedResponse);
+		}
+	}
+
+	public static CatalogStandIn start(Duration latency) throws IOException {
+		CatalogStandIn catalogStandIn = new CatalogStandIn(latency);
+		catalogStandIn.mockWebServer.setDispatcher(catalogStandIn.new BooksDispatcher());
+		catalogStandIn.mockWebServer.start();
+		catalogStandIn.discardRecordedRequests();
+		return catalogStandIn;
+	}
+
+	public static String randomIsbn(ThreadLocalRandom random) {
+		return String.valueOf(FIRST_ISBN + random.nextInt(BOOKS));
+	}
+
+	public URI uri() {
+		return mockWebServer.url("/").uri();
+	}
+
+	private static Map<String, Object> book(int index) {
+		Map<String, Object> book = new LinkedHashMap<>();
+		book.put("id", index + 1);
+		book.put("isbn", String.valueOf(FIRST_ISBN + index));
+		book.put("title", "Polar Journey " + index);
+		book.put("author", "Iorek Polarson");
+		book.put("price", 9.90 + index % 20);
+		book.put("publisher", "Polarsophia");
+		book.put("version", 0);
+		return book;
+	}
+
+	/**
+	 * MockWebServer keeps every request it receives for takeRequest(), which would fill the memory during a load
+	 * test, so they are taken and dropped as they come.
+	 */
+	private void discardRecordedRequests() {
+		Thread discarder = new Thread(() -> {
+			try {
+				while (true) {
+					mockWebServer.takeRequest();
+				}
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+		}, "catalog-stand-in-discarder");
+		discarder.setDaemon(true);
+		discarder.start();
+	}
+
+	@Override
+	public void close() throws IOException {
+		mockWebServer.shutdown();
+	}
+
+	private class BooksDispatcher extends Dispatcher {
+
+		@Override
+		public MockResponse dispatch(RecordedRequest request) {
+			HttpUrl url = request.getRequestUrl();
+			if (url == null || !"GET".equals(request.getMethod())) {
+				return new MockResponse().setResponseCode(404);
+			}
+
+			String body;
+			String path = url.encodedPath();
+			if (path.equals(BOOKS_PATH) || path.equals(BOOKS_PATH + "/")) {
+				String page = url.queryParameter("page");
+				body = pages[page == null ? 0 : Math.min(PAGES - 1, Math.max(0, Integer.parseInt(page)))];
+			} else if (path.startsWith(BOOKS_PATH + "/")) {
+				body = books.get(path.substring(BOOKS_PATH.length() + 1));
+			} else {
+				body = null;
+			}
+
+			MockResponse response = body == null
+					? new MockResponse().setResponseCode(404)
+					: new MockResponse().addHeader("Content-Type", "application/json").setBody(body);
+			return response.setHeadersDelay(latency.toMillis(), TimeUnit.MILLISECONDS);
+		}
+
+	}
+
+}
@@ -0,0 +1,60 @@
+package pk.training.basit.polarbookshop.loadtest.standin;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+
+/**
+ * A git repository in a temporary directory, with a single commit of the configuration of Catalog Service on the
+ * master branch, the default label of Config Service. Config Service reads a file: repository in place, so it
+ * clones it on start like its remote repository, without the network.
+ */
+public class GitRepositoryStandIn implements Closeable {
+
+	private static final String DEFAULT_LABEL = "master";
+
+	private final Path directory;
+
+	private GitRepositoryStandIn(Path directory) {
+		this.directory = directory;
+	}
+
+	public static GitRepositoryStandIn start() throws IOException {
+		Path directory = Files.createTempDirectory("config-repo");
+		Files.writeString(directory.resolve("catalog-service.yml"),
+				"polar:\n  greeting: \"Welcome to the catalog from the config server\"\n");
+		try (Git git = Git.init().setDirectory(directory.toFile()).setInitialBranch(DEFAULT_LABEL).call()) {
+			git.add().addFilepattern(".").call();
+			git.commit()
+					.setMessage("Add the configuration of Catalog Service")
+					.setAuthor("Polar Bookshop", "polar@bookshop.local")
+					.setCommitter("Polar Bookshop", "polar@bookshop.local")
+					.setSign(false)
+					.call();
+		} catch (GitAPIException exception) {
+			throw new IOException("Failed to create the git repository in " + directory, exception);
+		}
+		return new GitRepositoryStandIn(directory);
+	}
+
+	public URI uri() {
+		return directory.toUri();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
+
+}
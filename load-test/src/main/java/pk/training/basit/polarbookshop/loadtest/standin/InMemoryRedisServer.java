@@ -0,0 +1,385 @@
+package pk.training.basit.polarbookshop.loadtest.standin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A Redis server holding its data in memory, which speaks enough of the RESP2 protocol for Lettuce and Spring
+ * Session: connection commands, strings, hashes, counters and key expiry. Expired keys are dropped when they are
+ * next accessed. Unsupported commands, Lua scripts included, get an error reply, like from a Redis server that
+ * doesn't know them.
+ *
+ * Keys and values are kept as ISO-8859-1 strings, which map every byte to a char, so binary values are kept as is.
+ */
+public class InMemoryRedisServer implements Closeable {
+
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.ISO_8859_1);
+	private static final byte[] NULL_BULK = "$-1\r\n".getBytes(StandardCharsets.ISO_8859_1);
+	private static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+
+	private record Entry(Object value, long expiresAt) {
+
+		boolean isExpired(long now) {
+			return expiresAt > 0 && expiresAt <= now;
+		}
+
+		Entry withExpiresAt(long expiresAt) {
+			return new Entry(value, expiresAt);
+		}
+
+	}
+
+	private static final class RedisException extends RuntimeException {
+
+		RedisException(String message) {
+			super(message, null, false, false);
+		}
+
+	}
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final ServerSocket serverSocket;
+	private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "in-memory-redis");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private InMemoryRedisServer(ServerSocket serverSocket) {
+		this.serverSocket = serverSocket;
+	}
+
+	public static InMemoryRedisServer start() throws IOException {
+		InMemoryRedisServer server = new InMemoryRedisServer(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+		server.connections.execute(server::acceptConnections);
+		return server;
+	}
+
+	public int port() {
+		return serverSocket.getLocalPort();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		connections.shutdownNow();
+	}
+
+	private void acceptConnections() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				connections.execute(() -> serve(socket));
+			} catch (IOException exception) {
+				if (!serverSocket.isClosed()) {
+					LOGGER.warn("acceptConnections() failed: {}", exception.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replies to the commands of a connection in order. The replies are flushed once no command is left to read, so
+	 * that the commands pipelined by Lettuce get their replies in a single write.
+	 */
+	private void serve(Socket socket) {
+		try (socket;
+			 InputStream in = new BufferedInputStream(socket.getInputStream());
+			 OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+			List<String> command;
+			while ((command = readCommand(in)) != null) {
+				if (command.isEmpty()) {
+					continue;
+				}
+				out.write(execute(command));
+				if ("QUIT".equalsIgnoreCase(command.get(0))) {
+					out.flush();
+					return;
+				}
+				if (in.available() == 0) {
+					out.flush();
+				}
+			}
+		} catch (IOException exception) {
+			LOGGER.debug("serve() closes the connection: {}", exception.getMessage());
+		}
+	}
+
+	byte[] execute(List<String> command) {
+		try {
+			return dispatch(command.get(0).toUpperCase(Locale.ROOT), command.subList(1, command.size()));
+		} catch (RedisException exception) {
+			return error(exception.getMessage());
+		} catch (NumberFormatException exception) {
+			return error("ERR value is not an integer or out of range");
+		} catch (IndexOutOfBoundsException exception) {
+			return error("ERR wrong number of arguments for '" + command.get(0).toLowerCase(Locale.ROOT) + "' command");
+		}
+	}
+
+	private byte[] dispatch(String name, List<String> args) {
+		long now = System.currentTimeMillis();
+		return switch (name) {
+			case "PING" -> args.isEmpty() ? simpleString("PONG") : bulk(args.get(0));
+			case "ECHO" -> bulk(args.get(0));
+			case "AUTH", "CLIENT", "SELECT", "READONLY", "QUIT" -> OK;
+			case "INFO" -> bulk("# Server\r\nredis_version:6.2.6\r\nredis_mode:standalone\r\n");
+			case "DBSIZE" -> integer(entries.size());
+			case "FLUSHALL", "FLUSHDB" -> {
+				entries.clear();
+				yield OK;
+			}
+			case "GET" -> bulk(string(get(args.get(0), now)));
+			case "SET" -> set(args, now);
+			case "INCR" -> integer(incrementBy(args.get(0), 1, now));
+			case "INCRBY" -> integer(incrementBy(args.get(0), Long.parseLong(args.get(1)), now));
+			case "DEL", "UNLINK" -> integer(args.stream().filter(key -> remove(key, now)).count());
+			case "EXISTS" -> integer(args.stream().filter(key -> get(key, now) != null).count());
+			case "EXPIRE" -> integer(expireAt(args.get(0), now + Long.parseLong(args.get(1)) * 1000, now));
+			case "PEXPIRE" -> integer(expireAt(args.get(0), now + Long.parseLong(args.get(1)), now));
+			case "PEXPIREAT" -> integer(expireAt(args.get(0), Long.parseLong(args.get(1)), now));
+			case "PERSIST" -> integer(expireAt(args.get(0), 0, now));
+			case "TTL" -> integer(timeToLive(args.get(0), now, 1000));
+			case "PTTL" -> integer(timeToLive(args.get(0), now, 1));
+			case "RENAME" -> rename(args.get(0), args.get(1), now);
+			case "HSET", "HMSET" -> hashSet(name, args, now);
+			case "HGET" -> {
+				Map<String, String> hash = hash(get(args.get(0), now));
+				yield bulk(hash == null ? null : hash.get(args.get(1)));
+			}
+			case "HGETALL" -> {
+				Map<String, String> hash = hash(get(args.get(0), now));
+				List<String> fieldsAndValues = new ArrayList<>();
+				if (hash != null) {
+					hash.forEach((field, value) -> {
+						fieldsAndValues.add(field);
+						fieldsAndValues.add(value);
+					});
+				}
+				yield array(fieldsAndValues);
+			}
+			case "HDEL" -> {
+				Map<String, String> hash = hash(get(args.get(0), now));
+				yield integer(hash == null ? 0 : args.subList(1, args.size()).stream()
+						.filter(field -> hash.remove(field) != null)
+						.count());
+			}
+			default -> error("ERR unknown command '" + name.toLowerCase(Locale.ROOT) + "'");
+		};
+	}
+
+	// Only the EX, PX and NX options are supported
+	private byte[] set(List<String> args, long now) {
+		String key = args.get(0);
+		long expiresAt = 0;
+		boolean onlyIfAbsent = false;
+		for (int i = 2; i < args.size(); i++) {
+			switch (args.get(i).toUpperCase(Locale.ROOT)) {
+				case "EX" -> expiresAt = now + Long.parseLong(args.get(++i)) * 1000;
+				case "PX" -> expiresAt = now + Long.parseLong(args.get(++i));
+				case "NX" -> onlyIfAbsent = true;
+				default -> throw new RedisException("ERR syntax error");
+			}
+		}
+		Entry entry = new Entry(args.get(1), expiresAt);
+		if (!onlyIfAbsent) {
+			entries.put(key, entry);
+			return OK;
+		}
+		boolean[] set = new boolean[1];
+		entries.compute(key, (k, current) -> {
+			if (current == null || current.isExpired(now)) {
+				set[0] = true;
+				return entry;
+			}
+			return current;
+		});
+		return set[0] ? OK : NULL_BULK;
+	}
+
+	private long incrementBy(String key, long increment, long now) {
+		long[] result = new long[1];
+		entries.compute(key, (k, current) -> {
+			if (current == null || current.isExpired(now)) {
+				result[0] = increment;
+				return new Entry(String.valueOf(increment), 0);
+			}
+			result[0] = Long.parseLong(string(current)) + increment;
+			return new Entry(String.valueOf(result[0]), current.expiresAt());
+		});
+		return result[0];
+	}
+
+	private byte[] hashSet(String name, List<String> args, long now) {
+		if (args.size() < 3 || args.size() % 2 == 0) {
+			throw new RedisException("ERR wrong number of arguments for '" + name.toLowerCase(Locale.ROOT) + "' command");
+		}
+		int[] added = new int[1];
+		entries.compute(args.get(0), (key, current) -> {
+			Entry entry = current == null || current.isExpired(now)
+					? new Entry(new ConcurrentHashMap<String, String>(), 0)
+					: current;
+			Map<String, String> hash = hash(entry);
+			for (int i = 1; i < args.size(); i += 2) {
+				if (hash.put(args.get(i), args.get(i + 1)) == null) {
+					added[0]++;
+				}
+			}
+			return entry;
+		});
+		return "HMSET".equals(name) ? OK : integer(added[0]);
+	}
+
+	private int expireAt(String key, long expiresAt, long now) {
+		Entry entry = entries.computeIfPresent(key,
+				(k, current) -> current.isExpired(now) ? null : current.withExpiresAt(expiresAt));
+		return entry == null ? 0 : 1;
+	}
+
+	// -2 when the key doesn't exist, -1 when it has no expiry, like Redis
+	private long timeToLive(String key, long now, long unitMillis) {
+		Entry entry = get(key, now);
+		if (entry == null) {
+			return -2;
+		}
+		return entry.expiresAt() == 0 ? -1 : (entry.expiresAt() - now) / unitMillis;
+	}
+
+	private byte[] rename(String key, String newKey, long now) {
+		Entry entry = entries.remove(key);
+		if (entry == null || entry.isExpired(now)) {
+			throw new RedisException("ERR no such key");
+		}
+		entries.put(newKey, entry);
+		return OK;
+	}
+
+	private Entry get(String key, long now) {
+		Entry entry = entries.get(key);
+		if (entry != null && entry.isExpired(now)) {
+			entries.remove(key, entry);
+			return null;
+		}
+		return entry;
+	}
+
+	private boolean remove(String key, long now) {
+		Entry entry = entries.remove(key);
+		return entry != null && !entry.isExpired(now);
+	}
+
+	private static String string(Entry entry) {
+		if (entry == null) {
+			return null;
+		}
+		if (!(entry.value() instanceof String value)) {
+			throw new RedisException(WRONG_TYPE);
+		}
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, String> hash(Entry entry) {
+		if (entry == null) {
+			return null;
+		}
+		if (!(entry.value() instanceof Map)) {
+			throw new RedisException(WRONG_TYPE);
+		}
+		return (Map<String, String>) entry.value();
+	}
+
+	/**
+	 * Reads a command sent as an array of bulk strings, like clients do, or as an inline command, like redis-cli
+	 * and telnet users do. Returns null at the end of the stream.
+	 */
+	private static List<String> readCommand(InputStream in) throws IOException {
+		int type = in.read();
+		if (type == -1) {
+			return null;
+		}
+		if (type != '*') {
+			String line = (char) type + readLine(in);
+			return line.isBlank() ? List.of() : List.of(line.trim().split("\\s+"));
+		}
+
+		int count = Integer.parseInt(readLine(in));
+		List<String> command = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			if (in.read() != '$') {
+				throw new IOException("Protocol error: expected a bulk string");
+			}
+			int length = Integer.parseInt(readLine(in));
+			byte[] bytes = in.readNBytes(length);
+			if (bytes.length < length || in.read() != '\r' || in.read() != '\n') {
+				throw new EOFException("Protocol error: truncated bulk string");
+			}
+			command.add(new String(bytes, StandardCharsets.ISO_8859_1));
+		}
+		return command;
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != '\n') {
+			if (b == -1) {
+				throw new EOFException("Protocol error: truncated line");
+			}
+			if (b != '\r') {
+				line.write(b);
+			}
+		}
+		return line.toString(StandardCharsets.ISO_8859_1);
+	}
+
+	private static byte[] simpleString(String value) {
+		return ("+" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	private static byte[] error(String message) {
+		return ("-" + message + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	private static byte[] integer(long value) {
+		return (":" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	private static byte[] bulk(String value) {
+		if (value == null) {
+			return NULL_BULK;
+		}
+		return ("$" + value.length() + "\r\n" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	private static byte[] array(List<String> values) {
+		StringBuilder reply = new StringBuilder("*").append(values.size()).append("\r\n");
+		values.forEach(value -> reply.append('$').append(value.length()).append("\r\n").append(value).append("\r\n"));
+		return reply.toString().getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+}
@@ -0,0 +1,123 @@
+package pk.training.basit.polarbookshop.loadtest.startup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The four services, with the arguments and the environment that point them at the stand-ins, and the requests
+ * that exercise their main code paths once they are ready. The rest of the configuration is the one they ship with.
+ */
+public enum PolarService {
+
+	CATALOG_SERVICE("catalog-service", "/books", "/books/1234567890") {
+
+		@Override
+		public List<String> arguments(StandIns standIns) throws IOException {
+			String database = standIns.postgresDatabase("polardb_catalog");
+			return List.of(
+					"--spring.datasource.url=jdbc:postgresql://" + database,
+					"--spring.datasource.username=" + StandIns.POSTGRES_USER,
+					"--spring.datasource.password=" + StandIns.POSTGRES_USER,
+					"--spring.r2dbc.url=r2dbc:postgresql://" + database,
+					"--spring.r2dbc.username=" + StandIns.POSTGRES_USER,
+					"--spring.r2dbc.password=" + StandIns.POSTGRES_USER);
+		}
+
+	},
+
+	ORDER_SERVICE("order-service", "/orders") {
+
+		@Override
+		public List<String> arguments(StandIns standIns) throws IOException {
+			String database = standIns.postgresDatabase("polardb_order");
+			return List.of(
+					"--spring.r2dbc.url=r2dbc:postgresql://" + database,
+					"--spring.r2dbc.username=" + StandIns.POSTGRES_USER,
+					"--spring.r2dbc.password=" + StandIns.POSTGRES_USER,
+					"--spring.flyway.url=jdbc:postgresql://" + database,
+					"--polar.catalog-service-uri=" + standIns.catalogService().uri());
+		}
+
+	},
+
+	// The synchronization of the rate limiter through Redis is disabled, as its Lua script can't run on the stand-in
+	EDGE_SERVICE("edge-service", "/books", "/books/1234567890") {
+
+		@Override
+		public List<String> arguments(StandIns standIns) throws IOException {
+			return List.of(
+					"--spring.data.redis.port=" + standIns.redis().port(),
+					"--polar.rate-limiter.redis-sync=false");
+		}
+
+		@Override
+		public Map<String, String> environment(StandIns standIns) throws IOException {
+			return Map.of("CATALOG_SERVICE_URL", standIns.catalogService().uri().toString().replaceAll("/$", ""));
+		}
+
+	},
+
+	CONFIG_SERVICE("config-service", "/catalog-service/default", "/versions/catalog-service/default") {
+
+		@Override
+		public List<String> arguments(StandIns standIns) throws IOException {
+			return List.of("--spring.cloud.config.server.git.uri=" + standIns.configRepository().uri());
+		}
+
+	};
+
+	private final String serviceName;
+	private final List<String> warmUpPaths;
+
+	PolarService(String serviceName, String... warmUpPaths) {
+		this.serviceName = serviceName;
+		this.warmUpPaths = List.of(warmUpPaths);
+	}
+
+	public abstract List<String> arguments(StandIns standIns) throws IOException;
+
+	public Map<String, String> environment(StandIns standIns) throws IOException {
+		return Map.of();
+	}
+
+	public String serviceName() {
+		return serviceName;
+	}
+
+	public List<String> warmUpPaths() {
+		return warmUpPaths;
+	}
+
+	/**
+	 * Sends a GET request to each of the warm-up paths of the service listening on the given port, and returns the
+	 * status of every response by path.
+	 */
+	public Map<String, Integer> warmUp(int port) throws IOException, InterruptedException {
+		HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+		Map<String, Integer> statuses = new LinkedHashMap<>();
+		for (String path : warmUpPaths) {
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+					.timeout(Duration.ofSeconds(10))
+					.build();
+			statuses.put(path, httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+		}
+		return statuses;
+	}
+
+	public static PolarService fromName(String serviceName) {
+		return Arrays.stream(values())
+				.filter(service -> service.serviceName.equals(serviceName))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown service " + serviceName + ", expected one of "
+						+ Arrays.stream(values()).map(PolarService::serviceName).toList()));
+	}
+
+}
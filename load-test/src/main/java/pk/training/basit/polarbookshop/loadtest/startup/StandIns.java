@@ -0,0 +1,102 @@
+package pk.training.basit.polarbookshop.loadtest.startup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import pk.training.basit.polarbookshop.loadtest.standin.CatalogStandIn;
+import pk.training.basit.polarbookshop.loadtest.standin.GitRepositoryStandIn;
+import pk.training.basit.polarbookshop.loadtest.standin.InMemoryRedisServer;
+
+/**
+ * The stand-ins the services are booted on, each one started when a service first needs it, and all stopped
+ * together. Every service gets its own PostgreSQL database, as each one has its own Flyway migrations.
+ */
+public class StandIns implements Closeable {
+
+	public static final String POSTGRES_USER = "postgres";
+
+	private final Deque<Closeable> started = new ArrayDeque<>();
+
+	private EmbeddedPostgres postgres;
+	private InMemoryRedisServer redis;
+	private CatalogStandIn catalogService;
+	private GitRepositoryStandIn configRepository;
+
+	/**
+	 * Returns the host and port of the PostgreSQL stand-in, and of the given database, which is created if needed,
+	 * as localhost:port/database.
+	 */
+	public String postgresDatabase(String database) throws IOException {
+		if (postgres == null) {
+			postgres = start(EmbeddedPostgres.builder().start());
+		}
+		try (Connection connection = postgres.getPostgresDatabase().getConnection();
+			 PreparedStatement query = connection.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+			query.setString(1, database);
+			try (ResultSet resultSet = query.executeQuery(); Statement statement = connection.createStatement()) {
+				if (!resultSet.next()) {
+					statement.execute("CREATE DATABASE " + database);
+				}
+			}
+		} catch (SQLException exception) {
+			throw new IOException("Failed to create the database " + database, exception);
+		}
+		return "localhost:" + postgres.getPort() + "/" + database;
+	}
+
+	public InMemoryRedisServer redis() throws IOException {
+		if (redis == null) {
+			redis = start(InMemoryRedisServer.start());
+		}
+		return redis;
+	}
+
+	public CatalogStandIn catalogService() throws IOException {
+		if (catalogService == null) {
+			catalogService = start(CatalogStandIn.start(Duration.ZERO));
+		}
+		return catalogService;
+	}
+
+	public GitRepositoryStandIn configRepository() throws IOException {
+		if (configRepository == null) {
+			configRepository = start(GitRepositoryStandIn.start());
+		}
+		return configRepository;
+	}
+
+	private <T extends Closeable> T start(T standIn) {
+		started.push(standIn);
+		return standIn;
+	}
+
+	// Stops the stand-ins in the reverse order of their start, all of them even if one fails to stop
+	@Override
+	public void close() throws IOException {
+		IOException failure = null;
+		while (!started.isEmpty()) {
+			try {
+				started.pop().close();
+			} catch (IOException exception) {
+				if (failure == null) {
+					failure = exception;
+				} else {
+					failure.addSuppressed(exception);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package pk.training.basit.polarbookshop.loadtest.startup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pk.training.basit.polarbookshop.loadtest.ServiceProcess;
+import pk.training.basit.polarbookshop.loadtest.startup.StartupReport.StartupResult;
+
+/**
+ * Measures the time to ready of the services in the given startup modes, on the stand-ins. The modes alternate from
+ * run to run, so that a slower period of the machine doesn't favor one of them, and the first run of every service
+ * and mode isn't measured: it also warms up the stand-ins and the page cache, and lets Order Service and Catalog
+ * Service migrate their databases.
+ *
+ * Once ready, every service is sent its warm-up requests, which doubles as a smoke test: the benchmark fails if one
+ * of them doesn't get an answer or gets a server error. The resident set size of the service is measured after them.
+ */
+public class StartupBenchmark {
+
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+	public static void main(String[] args) throws Exception {
+		StartupBenchmarkSettings settings = StartupBenchmarkSettings.fromSystemProperties();
+		Path logDirectory = settings.reportDirectory().resolve("logs");
+		List<StartupResult> results = new ArrayList<>();
+
+		try (StandIns standIns = new StandIns()) {
+			for (PolarService service : settings.services()) {
+				for (StartupMode mode : settings.modes()) {
+					mode.requiredFiles(service, settings).forEach(StartupBenchmark::checkExists);
+				}
+
+				Map<StartupMode, List<Duration>> timesToReady = new EnumMap<>(StartupMode.class);
+				Map<StartupMode, List<Long>> residentSetSizes = new EnumMap<>(StartupMode.class);
+				for (int run = 0; run <= settings.runs(); run++) {
+					for (StartupMode mode : settings.modes()) {
+						String name = service.serviceName() + "-" + mode.name().toLowerCase();
+						int port = ServiceProcess.freePort();
+						List<String> arguments = service.arguments(standIns);
+						Map<String, String> environment = service.environment(standIns);
+
+						long start = System.nanoTime();
+						try (ServiceProcess serviceProcess = mode.start(service, settings, name, port, arguments,
+								environment, logDirectory)) {
+							serviceProcess.awaitReady(STARTUP_TIMEOUT);
+							Duration timeToReady = Duration.ofNanos(System.nanoTime() - start);
+
+							smokeTest(service, name, port, logDirectory);
+							long residentSetSize = serviceProcess.residentSetSize().orElse(0);
+							LOGGER.info("main() {} run {}: ready in {} ms, {} MB resident", name, run,
+									timeToReady.toMillis(), residentSetSize / 1024);
+							if (run > 0) {
+								timesToReady.computeIfAbsent(mode, key -> new ArrayList<>()).add(timeToReady);
+								residentSetSizes.computeIfAbsent(mode, key -> new ArrayList<>()).add(residentSetSize);
+							}
+						}
+					}
+				}
+				timesToReady.forEach((mode, durations) -> results.add(
+						new StartupResult(service, mode, durations, residentSetSizes.get(mode))));
+			}
+		}
+
+		StartupReport report = new StartupReport(results);
+		report.print(System.out);
+		LOGGER.info("main() wrote the report to {}", report.writeCsv(settings.reportDirectory()));
+	}
+
+	private static void smokeTest(PolarService service, String name, int port, Path logDirectory) throws Exception {
+		service.warmUp(port).forEach((path, status) -> {
+			if (status >= 500) {
+				throw new IllegalStateException(name + " answered " + status + " to GET " + path + ", see "
+						+ logDirectory.resolve(name + ".log"));
+			}
+		});
+	}
+
+	private static void checkExists(Path file) {
+		if (!Files.isRegularFile(file)) {
+			throw new IllegalStateException(file + " wasn't found, see the startupBenchmark and nativeSmokeTest tasks");
+		}
+	}
+
+}
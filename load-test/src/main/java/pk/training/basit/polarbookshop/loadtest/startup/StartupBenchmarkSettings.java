@@ -0,0 +1,59 @@
+package pk.training.basit.polarbookshop.loadtest.startup;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings of a startup benchmark, read from the polar.startup.* system properties set by the startupBenchmark
+ * Gradle task.
+ */
+public record StartupBenchmarkSettings(
+
+	List<PolarService> services,
+
+	List<StartupMode> modes,
+
+	int runs,
+
+	Path projectDirectory,
+
+	String version,
+
+	Path reportDirectory
+
+){
+
+	private static final String PREFIX = "polar.startup.";
+
+	public static StartupBenchmarkSettings fromSystemProperties() {
+		return new StartupBenchmarkSettings(
+				parseServices(property("services", "catalog-service,order-service,edge-service,config-service")),
+				parseModes(property("modes", "jar,aot+cds")),
+				Integer.parseInt(property("runs", "5")),
+				Path.of(property("project-directory", "..")).toAbsolutePath().normalize(),
+				property("version", "0.0.1-SNAPSHOT"),
+				Path.of(property("report-directory", "build/reports/startup")));
+	}
+
+	private static String property(String name, String defaultValue) {
+		return System.getProperty(PREFIX + name, defaultValue);
+	}
+
+	static List<PolarService> parseServices(String value) {
+		return Arrays.stream(value.split(","))
+				.map(String::trim)
+				.filter(serviceName -> !serviceName.isEmpty())
+				.map(PolarService::fromName)
+				.toList();
+	}
+
+	static List<StartupMode> parseModes(String value) {
+		return Arrays.stream(value.split(","))
+				.map(String::trim)
+				.filter(mode -> !mode.isEmpty())
+				.map(StartupMode::fromDescription)
+				.toList();
+	}
+
+}
@@ -0,0 +1,116 @@
+package pk.training.basit.polarbookshop.loadtest.startup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import pk.training.basit.polarbookshop.loadtest.ServiceProcess;
+
+/**
+ * How a service is started: from its bootJar like with the images built by bootBuildImage, from the layout of its
+ * cdsLayout task, with the AOT-processed application context and the AppCDS archive of its training run, or from
+ * the native executable built by its nativeCompile task.
+ */
+public enum StartupMode {
+
+	JAR("jar") {
+
+		@Override
+		public List<Path> requiredFiles(PolarService service, StartupBenchmarkSettings settings) {
+			return List.of(jar(service, settings));
+		}
+
+		@Override
+		public ServiceProcess start(PolarService service, StartupBenchmarkSettings settings, String name, int port,
+				List<String> args, Map<String, String> environment, Path logDirectory) throws IOException {
+			return ServiceProcess.start(name, jar(service, settings), port, List.of(), args, environment,
+					logDirectory);
+		}
+
+		private Path jar(PolarService service, StartupBenchmarkSettings settings) {
+			return serviceDirectory(service, settings).resolve("build/libs")
+					.resolve(service.serviceName() + "-" + settings.version() + ".jar");
+		}
+
+	},
+
+	AOT_CDS("aot+cds") {
+
+		@Override
+		public List<Path> requiredFiles(PolarService service, StartupBenchmarkSettings settings) {
+			Path cdsDirectory = cdsDirectory(service, settings);
+			return List.of(cdsDirectory.resolve(TrainingRun.APPLICATION_JAR), cdsDirectory.resolve(TrainingRun.ARCHIVE));
+		}
+
+		@Override
+		public ServiceProcess start(PolarService service, StartupBenchmarkSettings settings, String name, int port,
+				List<String> args, Map<String, String> environment, Path logDirectory) throws IOException {
+			Path cdsDirectory = cdsDirectory(service, settings);
+			List<String> jvmArgs = Stream.concat(
+					Stream.of("-XX:SharedArchiveFile=" + cdsDirectory.resolve(TrainingRun.ARCHIVE)),
+					TrainingRun.AOT_JVM_ARGS.stream()).toList();
+			return ServiceProcess.start(name, cdsDirectory.resolve(TrainingRun.APPLICATION_JAR), port, jvmArgs, args,
+					environment, logDirectory);
+		}
+
+	},
+
+	NATIVE("native") {
+
+		@Override
+		public List<Path> requiredFiles(PolarService service, StartupBenchmarkSettings settings) {
+			return List.of(executable(service, settings));
+		}
+
+		@Override
+		public ServiceProcess start(PolarService service, StartupBenchmarkSettings settings, String name, int port,
+				List<String> args, Map<String, String> environment, Path logDirectory) throws IOException {
+			return ServiceProcess.startNative(name, executable(service, settings), port, args, environment,
+					logDirectory);
+		}
+
+		private Path executable(PolarService service, StartupBenchmarkSettings settings) {
+			return serviceDirectory(service, settings).resolve("build/native/nativeCompile")
+					.resolve(service.serviceName());
+		}
+
+	};
+
+	private final String description;
+
+	StartupMode(String description) {
+		this.description = description;
+	}
+
+	/**
+	 * Returns the files built for this mode, which must exist before the service can be started in it.
+	 */
+	public abstract List<Path> requiredFiles(PolarService service, StartupBenchmarkSettings settings);
+
+	public abstract ServiceProcess start(PolarService service, StartupBenchmarkSettings settings, String name,
+			int port, List<String> args, Map<String, String> environment, Path logDirectory) throws IOException;
+
+	public String description() {
+		return description;
+	}
+
+	public static StartupMode fromDescription(String description) {
+		return Arrays.stream(values())
+				.filter(mode -> mode.description.equals(description))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown startup mode " + description
+						+ ", expected one of " + Arrays.stream(values()).map(StartupMode::description).toList()));
+	}
+
+	private static Path serviceDirectory(PolarService service, StartupBenchmarkSettings settings) {
+		return settings.projectDirectory().resolve(service.serviceName());
+	}
+
+	private static Path cdsDirectory(PolarService service, StartupBenchmarkSettings settings) {
+		return serviceDirectory(service, settings).resolve("build/cds");
+	}
+
+}
@@ -0,0 +1,94 @@
+package pk.training.basit.polarbookshop.loadtest.startup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The time to ready of every service in every startup mode, from the start of its process until its port accepts
+ * connections, and its resident set size once it served the warm-up requests, over the measured runs.
+ */
+public record StartupReport(
+
+	List<StartupResult> results
+
+){
+
+	private static final String HEADER = "%-16s %-9s %6s %10s %10s %10s %8s %8s%n";
+	private static final String ROW = "%-16s %-9s %6d %10d %10d %10d %8s %8d%n";
+
+	public record StartupResult(
+
+		PolarService service,
+
+		StartupMode mode,
+
+		List<Duration> timesToReady,
+
+		// In KiB, 0 when it can't be measured
+		List<Long> residentSetSizes
+
+	){
+
+		public long medianMillis() {
+			return median(timesToReady.stream().map(Duration::toMillis).toList());
+		}
+
+		public long medianResidentSetSizeMegabytes() {
+			return median(residentSetSizes) / 1024;
+		}
+
+		public long minMillis() {
+			return timesToReady.stream().mapToLong(Duration::toMillis).min().orElse(0);
+		}
+
+		public long maxMillis() {
+			return timesToReady.stream().mapToLong(Duration::toMillis).max().orElse(0);
+		}
+
+	}
+
+	public void print(PrintStream out) {
+		out.printf(Locale.ROOT, "Time to ready in ms, the change is the one of the median against the jar, and the"
+				+ " median resident set size in MB%n");
+		out.printf(Locale.ROOT, HEADER, "service", "mode", "runs", "median", "min", "max", "change", "rss");
+		results.forEach(result -> out.printf(Locale.ROOT, ROW, result.service().serviceName(),
+				result.mode().description(), result.timesToReady().size(), result.medianMillis(), result.minMillis(),
+				result.maxMillis(), change(result), result.medianResidentSetSizeMegabytes()));
+	}
+
+	// One line per service and mode, so that the results of successive runs can be compared with a spreadsheet or a diff
+	public Path writeCsv(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		Path file = directory.resolve("results.csv");
+		List<String> lines = new ArrayList<>();
+		lines.add("service,mode,runs,median_ms,min_ms,max_ms,change,rss_mb");
+		results.forEach(result -> lines.add(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%s,%d",
+				result.service().serviceName(), result.mode().description(), result.timesToReady().size(),
+				result.medianMillis(), result.minMillis(), result.maxMillis(), change(result),
+				result.medianResidentSetSizeMegabytes())));
+		return Files.write(file, lines);
+	}
+
+	private static long median(List<Long> values) {
+		List<Long> sorted = values.stream().sorted().toList();
+		int middle = sorted.size() / 2;
+		return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+	}
+
+	private String change(StartupResult result) {
+		return results.stream()
+				.filter(baseline -> baseline.service() == result.service() && baseline.mode() == StartupMode.JAR)
+				.findFirst()
+				.filter(baseline -> result.mode() != StartupMode.JAR && baseline.medianMillis() > 0)
+				.map(baseline -> String.format(Locale.ROOT, "%+.0f%%",
+						100.0 * (result.medianMillis() - baseline.medianMillis()) / baseline.medianMillis()))
+				.orElse("");
+	}
+
+}
@@ -0,0 +1,133 @@
+package pk.training.basit.polarbookshop.loadtest.startup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pk.training.basit.polarbookshop.loadtest.ServiceProcess;
+
+/**
+ * Creates the AppCDS archive of a service laid out by its cdsLayout task, with the JDK running the training run:
+ *
+ *     training-run <service> <application directory>
+ *
+ * The service is started on the stand-ins with Spring AOT, and the classes it loads until it's ready and has
+ * answered a few requests are listed. A static archive of these classes is then dumped as application.jsa, next
+ * to application.jar. A dynamic archive, -XX:ArchiveClassesAtExit, would save the second JVM, but JDK 17 crashes
+ * while dumping it for the services.
+ *
+ * Classes from signed jars, JGit and Bouncy Castle here, can't be archived. The JDK skips them, but crashes on the
+ * lambda proxies of their lambdas, so these are removed from the class list.
+ */
+public class TrainingRun {
+
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	public static final String APPLICATION_JAR = "application.jar";
+	public static final String ARCHIVE = "application.jsa";
+	public static final List<String> AOT_JVM_ARGS = List.of("-Dspring.aot.enabled=true");
+
+	private static final String CLASS_LIST = "application.classlist";
+	private static final String LAMBDA_PROXY = "@lambda-proxy";
+	private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			throw new IllegalArgumentException("Usage: training-run <service> <application directory>");
+		}
+		PolarService service = PolarService.fromName(args[0]);
+		Path applicationDirectory = Path.of(args[1]).toAbsolutePath();
+
+		try (StandIns standIns = new StandIns()) {
+			train(service, applicationDirectory, standIns, Files.createTempDirectory("training-run"));
+		}
+	}
+
+	public static Path train(PolarService service, Path applicationDirectory, StandIns standIns, Path logDirectory)
+			throws IOException, InterruptedException {
+		LOGGER.info("train() starts for {} in {}", service.serviceName(), applicationDirectory);
+		Path applicationJar = applicationDirectory.resolve(APPLICATION_JAR);
+		Path classList = applicationDirectory.resolve(CLASS_LIST);
+		Path archive = applicationDirectory.resolve(ARCHIVE);
+		Files.deleteIfExists(archive);
+
+		int port = ServiceProcess.freePort();
+		List<String> jvmArgs = Stream.concat(Stream.of("-XX:DumpLoadedClassList=" + classList),
+				AOT_JVM_ARGS.stream()).toList();
+		try (ServiceProcess serviceProcess = ServiceProcess.start(service.serviceName() + "-training", applicationJar,
+				port, jvmArgs, service.arguments(standIns), service.environment(standIns), logDirectory)) {
+			serviceProcess.awaitReady(STARTUP_TIMEOUT);
+			warmUp(service, port);
+		}	// The class list is complete once the service has exited
+
+		try {
+			removeLambdaProxiesOfSignedJars(classList, applicationDirectory.resolve("lib"));
+			dumpArchive(applicationJar, classList, archive, logDirectory.resolve(service.serviceName() + "-dump.log"));
+		} finally {
+			Files.deleteIfExists(classList);
+		}
+		LOGGER.info("train() ends, {} is {} MB", archive, Files.size(archive) / (1024 * 1024));
+		return archive;
+	}
+
+	// The responses don't matter, only the classes loaded to serve them
+	private static void warmUp(PolarService service, int port) throws InterruptedException {
+		try {
+			service.warmUp(port).forEach((path, status) -> LOGGER.info("warmUp() GET {} answered {}", path, status));
+		} catch (IOException exception) {
+			LOGGER.warn("warmUp() failed: {}", exception.getMessage());
+		}
+	}
+
+	private static void removeLambdaProxiesOfSignedJars(Path classList, Path libraryDirectory) throws IOException {
+		Set<String> signedClasses = new HashSet<>();
+		try (Stream<Path> libraries = Files.list(libraryDirectory)) {
+			for (Path library : libraries.filter(path -> path.toString().endsWith(".jar")).toList()) {
+				try (JarFile jarFile = new JarFile(library.toFile())) {
+					if (isSigned(jarFile)) {
+						jarFile.stream()
+								.map(JarEntry::getName)
+								.filter(name -> name.endsWith(".class"))
+								.map(name -> name.substring(0, name.length() - ".class".length()))
+								.forEach(signedClasses::add);
+					}
+				}
+			}
+		}
+
+		// A lambda proxy is listed as: @lambda-proxy <class declaring the lambda> <method> ...
+		List<String> lines = Files.readAllLines(classList).stream()
+				.filter(line -> !(line.startsWith(LAMBDA_PROXY) && signedClasses.contains(line.split(" ")[1])))
+				.toList();
+		Files.write(classList, lines);
+	}
+
+	private static boolean isSigned(JarFile jarFile) {
+		return jarFile.stream()
+				.map(JarEntry::getName)
+				.anyMatch(name -> name.startsWith("META-INF/") && name.endsWith(".SF"));
+	}
+
+	private static void dumpArchive(Path applicationJar, Path classList, Path archive, Path logFile)
+			throws IOException, InterruptedException {
+		Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-Xshare:dump", "-XX:SharedClassListFile=" + classList, "-XX:SharedArchiveFile=" + archive,
+				"-cp", applicationJar.toString())
+				.redirectErrorStream(true)
+				.redirectOutput(logFile.toFile())
+				.start();
+		if (process.waitFor() != 0 || !Files.isRegularFile(archive)) {
+			throw new IllegalStateException("Failed to dump " + archive + ", see " + logFile);
+		}
+	}
+
+}
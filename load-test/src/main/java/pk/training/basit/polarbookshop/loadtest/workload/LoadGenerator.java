@@ -0,0 +1,108 @@
+package pk.training.basit.polarbookshop.loadtest.workload;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pk.training.basit.polarbookshop.loadtest.LoadTestSettings;
+
+/**
+ * Drives the workload with a fixed number of virtual users, each sending its next request as soon as the previous
+ * one is answered, like browsers clicking through the shop without think time. The routes are picked at random
+ * according to the weights of the mix.
+ *
+ * Being a closed loop, the load drops when the services slow down, so the latencies of a saturated system are
+ * understated: compare throughputs at the same number of users, and look at the error rates alongside.
+ */
+public class LoadGenerator {
+
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private final LoadTestSettings settings;
+	private final URI edgeUri;
+	private final Route[] routes;
+	private final int[] cumulativeWeights;
+	private final Map<Route, RouteStats> routeStats = new EnumMap<>(Route.class);
+
+	public LoadGenerator(LoadTestSettings settings, URI edgeUri) {
+		this.settings = settings;
+		this.edgeUri = edgeUri;
+		this.routes = settings.mix().keySet().toArray(Route[]::new);
+		this.cumulativeWeights = new int[routes.length];
+		int totalWeight = 0;
+		for (int i = 0; i < routes.length; i++) {
+			totalWeight += settings.mix().get(routes[i]);
+			cumulativeWeights[i] = totalWeight;
+			routeStats.put(routes[i], new RouteStats());
+		}
+	}
+
+	public LoadReport run() throws InterruptedException {
+		HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(2))
+				.build();
+		long warmupEnd = System.nanoTime() + settings.warmup().toNanos();
+		long end = warmupEnd + settings.duration().toNanos();
+
+		LOGGER.info("run() starts with {} users, warming up for {}", settings.users(), settings.warmup());
+		ExecutorService users = Executors.newFixedThreadPool(settings.users());
+		for (int i = 0; i < settings.users(); i++) {
+			users.execute(() -> sendRequests(httpClient, end));
+		}
+
+		TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+		routeStats.values().forEach(RouteStats::reset);
+		long measurementStart = System.nanoTime();
+		LOGGER.info("run() measures for {}", settings.duration());
+
+		users.shutdown();
+		if (!users.awaitTermination(settings.duration().toSeconds() + 30, TimeUnit.SECONDS)) {
+			users.shutdownNow();
+		}
+		Duration measured = Duration.ofNanos(System.nanoTime() - measurementStart);
+		LOGGER.info("run() ends after measuring for {}", measured);
+		return LoadReport.of(routeStats, measured);
+	}
+
+	private void sendRequests(HttpClient httpClient, long end) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < end) {
+			Route route = pickRoute(random);
+			long start = System.nanoTime();
+			boolean error;
+			try {
+				HttpResponse<Void> response = httpClient.send(route.newRequest(edgeUri, random),
+						HttpResponse.BodyHandlers.discarding());	// The body is still read to the end
+				error = response.statusCode() >= 400;
+			} catch (IOException exception) {
+				error = true;
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			routeStats.get(route).record(System.nanoTime() - start, error);
+		}
+	}
+
+	private Route pickRoute(ThreadLocalRandom random) {
+		int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		for (int i = 0; i < cumulativeWeights.length; i++) {
+			if (value < cumulativeWeights[i]) {
+				return routes[i];
+			}
+		}
+		return routes[routes.length - 1];
+	}
+
+}
@@ -0,0 +1,110 @@
+package pk.training.basit.polarbookshop.loadtest.workload;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Throughput, latency percentiles and error rate of every route, and of all the routes together, over the measured
+ * part of a run.
+ */
+public record LoadReport(
+
+	Duration measured,
+
+	List<RouteResult> results
+
+){
+
+	private static final String HEADER = "%-18s %10s %10s %8s %9s %9s %9s %9s%n";
+	private static final String ROW = "%-18s %10d %10.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f%n";
+
+	public record RouteResult(
+
+		String route,
+
+		long requests,
+
+		long errors,
+
+		double throughput,
+
+		double p50Millis,
+
+		double p99Millis,
+
+		double p999Millis,
+
+		double maxMillis
+
+	){
+
+		static RouteResult of(String route, Histogram latencies, long errors, Duration measured) {
+			return new RouteResult(route, latencies.getTotalCount(), errors,
+					latencies.getTotalCount() / (measured.toNanos() / 1e9),
+					millis(latencies.getValueAtPercentile(50)),
+					millis(latencies.getValueAtPercentile(99)),
+					millis(latencies.getValueAtPercentile(99.9)),
+					millis(latencies.getMaxValue()));
+		}
+
+		public double errorRate() {
+			return requests == 0 ? 0 : 100.0 * errors / requests;
+		}
+
+		private static double millis(long micros) {
+			return micros / 1000.0;
+		}
+
+	}
+
+	static LoadReport of(Map<Route, RouteStats> routeStats, Duration measured) {
+		List<RouteResult> results = new ArrayList<>();
+		Histogram allLatencies = null;
+		long allErrors = 0;
+		for (Map.Entry<Route, RouteStats> entry : routeStats.entrySet()) {
+			Histogram latencies = entry.getValue().latencies();
+			long errors = entry.getValue().errors();
+			results.add(RouteResult.of(entry.getKey().description(), latencies, errors, measured));
+			if (allLatencies == null) {
+				allLatencies = latencies.copy();
+			} else {
+				allLatencies.add(latencies);
+			}
+			allErrors += errors;
+		}
+		if (allLatencies != null) {
+			results.add(RouteResult.of("all", allLatencies, allErrors, measured));
+		}
+		return new LoadReport(measured, results);
+	}
+
+	public void print(PrintStream out) {
+		out.printf(Locale.ROOT, "Measured for %ds, latencies in ms%n", measured.toSeconds());
+		out.printf(Locale.ROOT, HEADER, "route", "requests", "req/s", "errors", "p50", "p99", "p99.9", "max");
+		results.forEach(result -> out.printf(Locale.ROOT, ROW, result.route(), result.requests(),
+				result.throughput(), result.errorRate(), result.p50Millis(), result.p99Millis(), result.p999Millis(),
+				result.maxMillis()));
+	}
+
+	// One line per route, so that the results of successive runs can be compared with a spreadsheet or a diff
+	public Path writeCsv(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		Path file = directory.resolve("results.csv");
+		List<String> lines = new ArrayList<>();
+		lines.add("route,requests,errors,error_rate,throughput,p50_ms,p99_ms,p999_ms,max_ms");
+		results.forEach(result -> lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.4f,%.2f,%.3f,%.3f,%.3f,%.3f",
+				result.route(), result.requests(), result.errors(), result.errorRate(), result.throughput(),
+				result.p50Millis(), result.p99Millis(), result.p999Millis(), result.maxMillis())));
+		return Files.write(file, lines);
+	}
+
+}
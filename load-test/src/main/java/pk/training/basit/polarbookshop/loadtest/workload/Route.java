@@ -0,0 +1,75 @@
+package pk.training.basit.polarbookshop.loadtest.workload;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import pk.training.basit.polarbookshop.loadtest.standin.CatalogStandIn;
+
+/**
+ * The requests of the workload, all sent through Edge Service. The books browsed, looked up and ordered are picked
+ * at random among those served by the catalog stand-in.
+ */
+public enum Route {
+
+	BROWSE_BOOKS("browse", "GET /books") {
+		@Override
+		HttpRequest.Builder request(URI edgeUri, ThreadLocalRandom random) {
+			int page = random.nextInt(CatalogStandIn.PAGES);
+			return HttpRequest.newBuilder(edgeUri.resolve("/books?page=" + page + "&size=" + CatalogStandIn.PAGE_SIZE))
+					.GET();
+		}
+	},
+
+	LOOKUP_BOOK("lookup", "GET /books/{isbn}") {
+		@Override
+		HttpRequest.Builder request(URI edgeUri, ThreadLocalRandom random) {
+			return HttpRequest.newBuilder(edgeUri.resolve("/books/" + CatalogStandIn.randomIsbn(random)))
+					.GET();
+		}
+	},
+
+	SUBMIT_ORDER("order", "POST /orders") {
+		@Override
+		HttpRequest.Builder request(URI edgeUri, ThreadLocalRandom random) {
+			String orderRequest = """
+					{"isbn": "%s", "quantity": %d}
+					""".formatted(CatalogStandIn.randomIsbn(random), 1 + random.nextInt(3));
+			return HttpRequest.newBuilder(edgeUri.resolve("/orders"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(orderRequest));
+		}
+	};
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+	private final String name;
+	private final String description;
+
+	Route(String name, String description) {
+		this.name = name;
+		this.description = description;
+	}
+
+	public String description() {
+		return description;
+	}
+
+	public HttpRequest newRequest(URI edgeUri, ThreadLocalRandom random) {
+		return request(edgeUri, random)
+				.timeout(REQUEST_TIMEOUT)
+				.build();
+	}
+
+	abstract HttpRequest.Builder request(URI edgeUri, ThreadLocalRandom random);
+
+	public static Route fromName(String name) {
+		return Arrays.stream(values())
+				.filter(route -> route.name.equalsIgnoreCase(name))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown route " + name + " in the workload mix."));
+	}
+
+}
@@ -0,0 +1,41 @@
+package pk.training.basit.polarbookshop.loadtest.workload;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * The latencies and errors of the requests of a route, recorded concurrently by all the virtual users. Latencies are
+ * kept in microseconds with 3 significant digits, up to a minute.
+ */
+public class RouteStats {
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+	private final LongAdder errors = new LongAdder();
+
+	public void record(long latencyNanos, boolean error) {
+		latencies.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+		if (error) {
+			errors.increment();
+		}
+	}
+
+	// Drops what was recorded during the warmup
+	public void reset() {
+		latencies.reset();
+		errors.reset();
+	}
+
+	public Histogram latencies() {
+		return latencies.getIntervalHistogram();
+	}
+
+	public long errors() {
+		return errors.sum();
+	}
+
+}
@@ -0,0 +1,96 @@
+package pk.training.basit.polarbookshop.loadtest.standin;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Uses Lettuce, the client of Edge Service, so that its connection handshake is checked along the commands.
+ */
+class InMemoryRedisServerTests {
+
+	private InMemoryRedisServer redisServer;
+	private RedisClient redisClient;
+	private StatefulRedisConnection<String, String> connection;
+	private RedisCommands<String, String> redis;
+
+	@BeforeEach
+	void setup() throws IOException {
+		redisServer = InMemoryRedisServer.start();
+		redisClient = RedisClient.create("redis://localhost:" + redisServer.port());
+		connection = redisClient.connect();
+		redis = connection.sync();
+	}
+
+	@AfterEach
+	void clean() throws IOException {
+		connection.close();
+		redisClient.shutdown();
+		redisServer.close();
+	}
+
+	@Test
+	void whenStringSetThenReturned() {
+		assertThat(redis.ping()).isEqualTo("PONG");
+		assertThat(redis.set("book", "Polar Journey")).isEqualTo("OK");
+		assertThat(redis.get("book")).isEqualTo("Polar Journey");
+		assertThat(redis.get("unknown")).isNull();
+	}
+
+	@Test
+	void whenCounterIncrementedThenTotalReturned() {
+		assertThat(redis.incrby("tokens", 3)).isEqualTo(3);
+		assertThat(redis.incrby("tokens", 4)).isEqualTo(7);
+		assertThatThrownBy(() -> redis.hset("tokens", "field", "value"))
+				.isInstanceOf(RedisCommandExecutionException.class)
+				.hasMessageStartingWith("WRONGTYPE");
+	}
+
+	@Test
+	void whenSessionSavedThenReadRenamedAndDeleted() {
+		redis.hset("polar:sessions:1", Map.of("creationTime", "1", "maxInactiveInterval", "600"));
+		redis.hset("polar:sessions:1", "lastAccessedTime", "2");
+		redis.pexpire("polar:sessions:1", Duration.ofMinutes(10).toMillis());
+
+		assertThat(redis.hgetall("polar:sessions:1"))
+				.containsEntry("creationTime", "1")
+				.containsEntry("lastAccessedTime", "2");
+		assertThat(redis.pttl("polar:sessions:1")).isBetween(1L, Duration.ofMinutes(10).toMillis());
+
+		redis.rename("polar:sessions:1", "polar:sessions:2");
+		assertThat(redis.exists("polar:sessions:1")).isZero();
+		assertThat(redis.hget("polar:sessions:2", "maxInactiveInterval")).isEqualTo("600");
+
+		assertThat(redis.del("polar:sessions:2")).isEqualTo(1);
+		assertThat(redis.hgetall("polar:sessions:2")).isEmpty();
+	}
+
+	@Test
+	void whenKeyExpiredThenDropped() throws InterruptedException {
+		redis.set("book", "Polar Journey", SetArgs.Builder.px(20));
+		Thread.sleep(50);
+		assertThat(redis.get("book")).isNull();
+		assertThat(redis.ttl("book")).isEqualTo(-2);
+	}
+
+	@Test
+	void whenCommandUnsupportedThenError() {
+		assertThatThrownBy(() -> redis.eval("return 1", ScriptOutputType.INTEGER))
+				.isInstanceOf(RedisCommandExecutionException.class)
+				.hasMessageContaining("unknown command");
+	}
+
+}
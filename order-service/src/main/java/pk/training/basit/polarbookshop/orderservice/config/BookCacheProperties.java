@@ -0,0 +1,28 @@
+package pk.training.basit.polarbookshop.orderservice.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Near-cache of the books looked up by ISBN in Catalog Service. An entry is fresh for timeToLive, then it's served
+ * stale while it's refreshed in the background. If Catalog Service can't be reached, stale entries keep being served
+ * until maxStale has elapsed since they were last loaded.
+ */
+@ConfigurationProperties(prefix = "polar.book-cache")
+public record BookCacheProperties (
+
+	boolean enabled,
+
+	@Positive
+	long maximumSize,
+
+	@NotNull
+	Duration timeToLive,
+
+	@NotNull
+	Duration maxStale
+
+){}
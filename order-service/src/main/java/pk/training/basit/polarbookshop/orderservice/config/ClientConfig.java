@@ -1,17 +1,26 @@
 package pk.training.basit.polarbookshop.orderservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
+import pk.training.basit.polarbookshop.orderservice.web.client.ConcurrencyLimitExchangeFilter;
 
 @Configuration
 public class ClientConfig {
 
+	/**
+	 * When enabled, the requests in flight to Catalog Service are bounded by an adaptive concurrency limit, so that
+	 * a load spike is shed here rather than piling up in front of its Tomcat threads.
+	 */
 	@Bean
-	WebClient webClient(ClientProperties clientProperties, WebClient.Builder webClientBuilder) {
-		return webClientBuilder
-				.baseUrl(clientProperties.catalogServiceUri().toString())
-				.build();
+	WebClient webClient(ClientProperties clientProperties, ConcurrencyLimitProperties concurrencyLimitProperties,
+			MeterRegistry meterRegistry, WebClient.Builder webClientBuilder) {
+		webClientBuilder.baseUrl(clientProperties.catalogServiceUri().toString());
+		if (concurrencyLimitProperties.enabled()) {
+			webClientBuilder.filter(new ConcurrencyLimitExchangeFilter(concurrencyLimitProperties, meterRegistry));
+		}
+		return webClientBuilder.build();
 	}
 
 }
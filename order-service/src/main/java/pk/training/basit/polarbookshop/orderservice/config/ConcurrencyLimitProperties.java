@@ -0,0 +1,24 @@
+package pk.training.basit.polarbookshop.orderservice.config;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive limit on the requests sent concurrently to Catalog Service. The limit starts at initialLimit and is
+ * adjusted between minLimit and maxLimit from the observed round-trip times.
+ */
+@ConfigurationProperties(prefix = "polar.concurrency-limit")
+public record ConcurrencyLimitProperties (
+
+	boolean enabled,
+
+	@Positive
+	int initialLimit,
+
+	@Positive
+	int minLimit,
+
+	@Positive
+	int maxLimit
+
+){}
@@ -0,0 +1,35 @@
+package pk.training.basit.polarbookshop.orderservice.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Hedging of the book lookups sent to Catalog Service. When a lookup hasn't been answered after the given
+ * percentile of the recent lookup latencies, and never before minDelay, a second identical request is sent and the
+ * first response wins. At most maxRatio hedges are sent per lookup on average, with bursts of up to maxBurst.
+ */
+@ConfigurationProperties(prefix = "polar.hedging")
+public record HedgingProperties (
+
+	boolean enabled,
+
+	@DecimalMin("0.5")
+	@DecimalMax("0.999")
+	double percentile,
+
+	@NotNull
+	Duration minDelay,
+
+	@DecimalMin("0.0")
+	@DecimalMax("1.0")
+	double maxRatio,
+
+	@Positive
+	int maxBurst
+
+){}
@@ -0,0 +1,50 @@
+package pk.training.basit.polarbookshop.orderservice.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookLookupRequest;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookLookupResponse;
+import pk.training.basit.polarbookshop.orderservice.web.dto.CursorPagedResponse;
+import pk.training.basit.polarbookshop.orderservice.web.dto.PagedResponse;
+import pk.training.basit.polarbookshop.orderservice.web.request.MultiLineOrderRequest;
+import pk.training.basit.polarbookshop.orderservice.web.request.OrderRequest;
+
+/**
+ * The hints a native image needs beyond the ones Spring AOT infers. They are only used by the nativeCompile task
+ * and by the AOT processing, and cost nothing on the JVM.
+ *
+ * Spring AOT registers the types of the controller methods, but not the orders inside the content of the paged
+ * responses, declared as a wildcard, nor the types WebClient exchanges with Catalog Service. The validation of the
+ * requests and of the configuration properties reads their constraints reflectively. The R2DBC auditing enabled by
+ * ReactiveAuditingConfiguration finds the audit fields of an order by their annotations, and creates the audited
+ * copy of the record through its constructor, which the accessor classes Spring Data generates on the JVM can't do
+ * in a native image.
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageConfiguration.OrderServiceRuntimeHints.class)
+@RegisterReflectionForBinding({ Order.class, PagedResponse.class, CursorPagedResponse.class, OrderRequest.class,
+		MultiLineOrderRequest.class, BookDTO.class, BookLookupRequest.class, BookLookupResponse.class,
+		ClientProperties.class })
+public class NativeImageConfiguration {
+
+	static class OrderServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+		@Override
+		public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+
+			// Imported by application.yml, only the application files are registered by Spring Boot
+			hints.resources().registerPattern("*.yml");
+
+			hints.reflection().registerType(Order.class, MemberCategory.DECLARED_FIELDS,
+					MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+		}
+
+	}
+
+}
@@ -0,0 +1,13 @@
+package pk.training.basit.polarbookshop.orderservice.exception;
+
+/**
+ * Thrown when a request to Catalog Service is shed because the concurrency limit is reached. The request was
+ * never sent, so it can safely be retried.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(int limit) {
+        super("The limit of " + limit + " concurrent requests to Catalog Service is reached.");
+    }
+
+}
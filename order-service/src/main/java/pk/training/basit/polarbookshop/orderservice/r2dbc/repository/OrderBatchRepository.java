@@ -0,0 +1,20 @@
+package pk.training.basit.polarbookshop.orderservice.r2dbc.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment, implemented by OrderBatchRepositoryImpl and mixed into OrderRepository.
+ */
+public interface OrderBatchRepository {
+
+    /**
+     * Inserts all the orders with a single multi-row INSERT statement, instead of the one INSERT per order issued
+     * by saveAll(), and returns them as stored, in the same order.
+     */
+    @Transactional
+    Flux<Order> insertAll(List<Order> orders);
+}
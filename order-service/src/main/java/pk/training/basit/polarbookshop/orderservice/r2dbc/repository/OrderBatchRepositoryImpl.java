@@ -0,0 +1,73 @@
+package pk.training.basit.polarbookshop.orderservice.r2dbc.repository;
+
+import org.springframework.data.domain.ReactiveAuditorAware;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.StringJoiner;
+
+public class OrderBatchRepositoryImpl implements OrderBatchRepository {
+
+    private static final String INSERT_ORDERS = """
+            INSERT INTO orders (book_isbn, book_name, book_price, quantity, status, created_by, created_date,
+                                last_modified_by, last_modified_date, version)
+            VALUES %s
+            RETURNING *
+            """;
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final ReactiveAuditorAware<Long> auditorAware;
+
+    public OrderBatchRepositoryImpl(R2dbcEntityTemplate r2dbcEntityTemplate, ReactiveAuditorAware<Long> auditorAware) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.auditorAware = auditorAware;
+    }
+
+    /**
+     * The statement bypasses the entity callbacks of R2dbcEntityTemplate, so the audit metadata and the initial
+     * version (1 for a primitive version property) are set here the same way Spring Data does it on insert.
+     * PostgreSQL returns the inserted rows in the order of the VALUES list.
+     */
+    @Override
+    public Flux<Order> insertAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return auditorAware.getCurrentAuditor()
+                .flatMapMany(auditor -> {
+                    Instant now = Instant.now();
+                    StringJoiner values = new StringJoiner(", ");
+                    for (int i = 0; i < orders.size(); i++) {
+                        values.add("(:bookIsbn%1$d, :bookName%1$d, :bookPrice%1$d, :quantity%1$d, :status%1$d, "
+                                .formatted(i) + ":auditor, :now, :auditor, :now, 1)");
+                    }
+
+                    DatabaseClient.GenericExecuteSpec spec = r2dbcEntityTemplate.getDatabaseClient()
+                            .sql(INSERT_ORDERS.formatted(values))
+                            .bind("auditor", auditor)
+                            .bind("now", now);
+                    for (int i = 0; i < orders.size(); i++) {
+                        Order order = orders.get(i);
+                        spec = bindNullable(spec, "bookIsbn" + i, order.bookIsbn(), String.class);
+                        spec = bindNullable(spec, "bookName" + i, order.bookName(), String.class);
+                        spec = bindNullable(spec, "bookPrice" + i, order.bookPrice(), Double.class);
+                        spec = bindNullable(spec, "quantity" + i, order.quantity(), Integer.class);
+                        spec = spec.bind("status" + i, order.status().name());
+                    }
+
+                    return spec.map((row, metadata) -> r2dbcEntityTemplate.getConverter().read(Order.class, row, metadata))
+                            .all();
+                });
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                                  Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+}
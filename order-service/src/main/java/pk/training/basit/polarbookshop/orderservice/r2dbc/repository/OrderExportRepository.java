@@ -0,0 +1,20 @@
+package pk.training.basit.polarbookshop.orderservice.r2dbc.repository;
+
+import pk.training.basit.polarbookshop.orderservice.enums.OrderStatus;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+/**
+ * Custom repository fragment, implemented by OrderExportRepositoryImpl and mixed into OrderRepository.
+ */
+public interface OrderExportRepository {
+
+    /**
+     * Streams the orders created in [from, to) with the given status, in identifier order. Every filter is optional.
+     * Rows are fetched from the database in batches as the subscriber requests them, so memory use doesn't depend on
+     * the number of orders exported.
+     */
+    Flux<Order> streamAllBy(Instant from, Instant to, OrderStatus status);
+}
@@ -0,0 +1,55 @@
+package pk.training.basit.polarbookshop.orderservice.r2dbc.repository;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import pk.training.basit.polarbookshop.orderservice.enums.OrderStatus;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+public class OrderExportRepositoryImpl implements OrderExportRepository {
+
+    private static final String SELECT_ORDERS = "SELECT * FROM orders %s ORDER BY id";
+
+    // Number of rows PostgreSQL sends per round trip, instead of the whole result set at once
+    private static final int FETCH_SIZE = 500;
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    public OrderExportRepositoryImpl(R2dbcEntityTemplate r2dbcEntityTemplate) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+    }
+
+    @Override
+    public Flux<Order> streamAllBy(Instant from, Instant to, OrderStatus status) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringJoiner where = new StringJoiner(" AND ", "WHERE ", "").setEmptyValue("");
+        if (from != null) {
+            where.add("created_date >= :from");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            where.add("created_date < :to");
+            parameters.put("to", to);
+        }
+        if (status != null) {
+            where.add("status = :status");
+            parameters.put("status", status.name());
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = r2dbcEntityTemplate.getDatabaseClient()
+                .sql(SELECT_ORDERS.formatted(where))
+                .filter(statement -> statement.fetchSize(FETCH_SIZE));
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+
+        return spec.map((row, metadata) -> r2dbcEntityTemplate.getConverter().read(Order.class, row, metadata))
+                .all();
+    }
+
+}
@@ -6,7 +6,8 @@ import org.springframework.data.repository.reactive.ReactiveSortingRepository;
 import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
 import reactor.core.publisher.Flux;
 
-public interface OrderRepository extends ReactiveSortingRepository<Order, Long>, ReactiveCrudRepository<Order,Long> {
+public interface OrderRepository extends ReactiveSortingRepository<Order, Long>, ReactiveCrudRepository<Order,Long>,
+        OrderBatchRepository, OrderScrollRepository, OrderExportRepository {
 
     Flux<Order> findAllBy(Pageable pageable);
 }
@@ -0,0 +1,26 @@
+package pk.training.basit.polarbookshop.orderservice.r2dbc.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment, implemented by OrderScrollRepositoryImpl and mixed into OrderRepository. Both methods
+ * fetch one extra row to find out whether there is more to read, so no count query is needed.
+ */
+public interface OrderScrollRepository {
+
+    /**
+     * Returns the requested page of orders, without the total number of orders.
+     */
+    Mono<Slice<Order>> findSliceBy(Pageable pageable);
+
+    /**
+     * Returns the window of at most size orders placed before the order with the given identifier, newest first.
+     * A null identifier returns the newest orders. The query seeks on the primary key instead of skipping OFFSET
+     * rows, so its cost doesn't grow with the depth of the window.
+     */
+    Mono<Window<Order>> findWindowBefore(Long id, int size);
+}
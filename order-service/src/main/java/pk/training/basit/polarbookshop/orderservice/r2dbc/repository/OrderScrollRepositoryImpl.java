@@ -0,0 +1,60 @@
+package pk.training.basit.polarbookshop.orderservice.r2dbc.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public class OrderScrollRepositoryImpl implements OrderScrollRepository {
+
+    private static final String ID_PROPERTY = "id";
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    public OrderScrollRepositoryImpl(R2dbcEntityTemplate r2dbcEntityTemplate) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+    }
+
+    @Override
+    public Mono<Slice<Order>> findSliceBy(Pageable pageable) {
+        Query query = Query.empty()
+                .sort(pageable.getSort())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1);
+
+        return r2dbcEntityTemplate.select(query, Order.class)
+                .collectList()
+                .map(orders -> {
+                    boolean hasNext = orders.size() > pageable.getPageSize();
+                    List<Order> content = hasNext ? orders.subList(0, pageable.getPageSize()) : orders;
+                    return new SliceImpl<>(content, pageable, hasNext);
+                });
+    }
+
+    @Override
+    public Mono<Window<Order>> findWindowBefore(Long id, int size) {
+        Criteria criteria = id == null ? Criteria.empty() : Criteria.where(ID_PROPERTY).lessThan(id);
+        Query query = Query.query(criteria)
+                .sort(Sort.by(Sort.Direction.DESC, ID_PROPERTY))
+                .limit(size + 1);
+
+        return r2dbcEntityTemplate.select(query, Order.class)
+                .collectList()
+                .map(orders -> {
+                    boolean hasNext = orders.size() > size;
+                    List<Order> content = hasNext ? orders.subList(0, size) : orders;
+                    return Window.from(content,
+                            index -> ScrollPosition.forward(Map.of(ID_PROPERTY, content.get(index).id())), hasNext);
+                });
+    }
+}
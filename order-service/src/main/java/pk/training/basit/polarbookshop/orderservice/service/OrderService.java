@@ -2,12 +2,24 @@ package pk.training.basit.polarbookshop.orderservice.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import pk.training.basit.polarbookshop.orderservice.enums.OrderStatus;
 import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import pk.training.basit.polarbookshop.orderservice.web.request.OrderRequest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.List;
+
 public interface OrderService {
 
     Mono<Page<Order>> getAllOrders(Pageable pageable);
+    Mono<Slice<Order>> getOrderSlice(Pageable pageable);
+    Mono<Window<Order>> getOrderWindow(Long afterId, int size);
+    Flux<Order> exportOrders(Instant from, Instant to, OrderStatus status);
     Mono<Order> submitOrder(String isbn, int quantity);
+    Flux<Order> submitOrders(List<OrderRequest> orderLines);
 
 }
@@ -1,10 +1,14 @@
 package pk.training.basit.polarbookshop.orderservice.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import pk.training.basit.polarbookshop.orderservice.enums.OrderStatus;
 import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
@@ -12,35 +16,78 @@ import pk.training.basit.polarbookshop.orderservice.r2dbc.repository.OrderReposi
 import pk.training.basit.polarbookshop.orderservice.service.OrderService;
 import pk.training.basit.polarbookshop.orderservice.web.client.BookClient;
 import pk.training.basit.polarbookshop.orderservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.orderservice.web.request.OrderRequest;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class OrderServiceImpl implements OrderService {
 
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final String SUBMIT_ORDER_METRIC = "polar.orders.submit";
 
     private final BookClient bookClient;
     private final OrderRepository orderRepository;
+    private final MeterRegistry meterRegistry;
 
-    public OrderServiceImpl(OrderRepository orderRepository, BookClient bookClient) {
+    public OrderServiceImpl(OrderRepository orderRepository, BookClient bookClient, MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.bookClient = bookClient;
+        this.meterRegistry = meterRegistry;
     }
 
-    // A Flux is used to publish multiple orders (0 ... N)
+    /**
+     * Runs the page query once, then the count query only when the total can't be told from the page itself, that
+     * is unless the page is the first one and isn't full, or the last one and isn't empty. This is the reactive
+     * counterpart of PageableExecutionUtils.getPage().
+     */
     @Override
     public Mono<Page<Order>> getAllOrders(Pageable pageable) {
         LOGGER.info("getAllOrders() starts for {}", pageable.getSort());
-        Flux<Order> orders = orderRepository.findAllBy(pageable);
-        Mono<Page<Order>> pagedOrders = orders.collectList()
-                .zipWith(orders.count())
-                .map(tuple -> new PageImpl<>(tuple.getT1(), pageable, tuple.size()));
+        Mono<Page<Order>> pagedOrders = orderRepository.findAllBy(pageable)
+                .collectList()
+                .flatMap(orders -> {
+                    if (pageable.isUnpaged() || (orders.size() < pageable.getPageSize()
+                            && (pageable.getOffset() == 0 || !orders.isEmpty()))) {
+                        long total = pageable.isUnpaged() ? orders.size() : pageable.getOffset() + orders.size();
+                        return Mono.just(new PageImpl<>(orders, pageable, total));
+                    }
+                    return orderRepository.count().map(total -> new PageImpl<>(orders, pageable, total));
+                });
 
         LOGGER.info("getAllOrders() ends for {}", pageable.getSort());
         return pagedOrders;
     }
 
+    @Override
+    public Mono<Slice<Order>> getOrderSlice(Pageable pageable) {
+        return orderRepository.findSliceBy(pageable);
+    }
+
+    @Override
+    public Mono<Window<Order>> getOrderWindow(Long afterId, int size) {
+        return orderRepository.findWindowBefore(afterId, size);
+    }
+
+    @Override
+    public Flux<Order> exportOrders(Instant from, Instant to, OrderStatus status) {
+        LOGGER.info("exportOrders() starts for orders from {} to {} with status {}", from, to, status);
+        Flux<Order> orders = orderRepository.streamAllBy(from, to, status);
+        LOGGER.info("exportOrders() ends for orders from {} to {} with status {}", from, to, status);
+        return orders;
+    }
+
+    /**
+     * The submission is timed from the subscription until the order is saved, by the status of the order, or error
+     * when it couldn't be saved.
+     */
     @Override
     public Mono<Order> submitOrder(String isbn, int quantity) {
         LOGGER.info("submitOrder() starts for isbn {} and quantity {}", isbn, quantity);
@@ -61,12 +108,61 @@ public class OrderServiceImpl implements OrderService {
         Mono<Order> savedOrder = bookClient.getBookByIsbn(isbn)     // Calls the Catalog Service to check the book’s availability
                 .map(book -> buildAcceptedOrder(book, quantity))    // If the book is available, it accepts the order.
                 .defaultIfEmpty(buildRejectedOrder(isbn, quantity)) // If the book is not available, it rejects the order.
-                .flatMap(orderRepository::save);                    // Saves the order (either as accepted or rejected)
+                .flatMap(orderRepository::save)                     // Saves the order (either as accepted or rejected)
+                .transform(this::timeSubmission);
 
         LOGGER.info("submitOrder() ends for isbn {} and quantity {}", isbn, quantity);
         return savedOrder;
     }
 
+    /**
+     * Resolves the books of all the order lines with one call to Catalog Service, then stores every line, accepted
+     * or rejected, with a single multi-row insert in one transaction. The lines are returned in request order.
+     */
+    @Override
+    public Flux<Order> submitOrders(List<OrderRequest> orderLines) {
+        LOGGER.info("submitOrders() starts for {} order lines", orderLines.size());
+        List<String> isbns = orderLines.stream()
+                .map(OrderRequest::isbn)
+                .distinct()
+                .toList();
+
+        Flux<Order> savedOrders = bookClient.getBooksByIsbns(isbns)
+                .map(bookLookup -> bookLookup.books().stream()
+                        .collect(Collectors.toMap(BookDTO::isbn, Function.identity(), (first, second) -> first)))
+                .defaultIfEmpty(Collections.emptyMap())     // If Catalog Service is unavailable, all the lines are rejected.
+                .map(books -> buildOrders(orderLines, books))
+                .flatMapMany(orderRepository::insertAll);
+
+        LOGGER.info("submitOrders() ends for {} order lines", orderLines.size());
+        return savedOrders;
+    }
+
+    private Mono<Order> timeSubmission(Mono<Order> submission) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return submission
+                    .doOnSuccess(order -> sample.stop(submitOrderTimer(
+                            order != null ? order.status().name().toLowerCase() : "error")))
+                    .doOnError(exception -> sample.stop(submitOrderTimer("error")));
+        });
+    }
+
+    private Timer submitOrderTimer(String outcome) {
+        return Timer.builder(SUBMIT_ORDER_METRIC)
+                .description("Orders submitted, from the book lookup until the order is saved, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static List<Order> buildOrders(List<OrderRequest> orderLines, Map<String, BookDTO> books) {
+        return orderLines.stream()
+                .map(orderLine -> books.containsKey(orderLine.isbn())
+                        ? buildAcceptedOrder(books.get(orderLine.isbn()), orderLine.quantity())
+                        : buildRejectedOrder(orderLine.isbn(), orderLine.quantity()))
+                .toList();
+    }
+
     /**
      * When an order is accepted, we specify ISBN, book name (title + author), quantity, and status. Spring
      * Data takes care of adding the identifier, version, and audit metadata.
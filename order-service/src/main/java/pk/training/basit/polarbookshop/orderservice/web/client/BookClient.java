@@ -1,8 +1,28 @@
 package pk.training.basit.polarbookshop.orderservice.web.client;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import pk.training.basit.polarbookshop.orderservice.config.BookCacheProperties;
+import pk.training.basit.polarbookshop.orderservice.config.HedgingProperties;
 
 import pk.training.basit.polarbookshop.orderservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookLookupRequest;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookLookupResponse;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
@@ -14,23 +34,178 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 public class BookClient {
 
 	private static final String BOOKS_ROOT_API = "/books/";
+	private static final String BOOK_API = BOOKS_ROOT_API + "{isbn}";
+	private static final String BOOKS_LOOKUP_API = BOOKS_ROOT_API + "lookup";
+	private static final String LOOKUPS_METRIC = "polar.book.client.lookups";
+	private static final String REQUESTS_METRIC = "polar.book.client.requests";
+	private static final String BOOKS_CACHE = "books";
+
 	private final WebClient webClient;
 
-	public BookClient(WebClient webClient) {
+	// The books retrieved from Catalog Service by ISBN, or null when the near-cache is disabled
+	private final AsyncLoadingCache<String, BookDTO> bookCache;
+
+	// The requests to Catalog Service currently in flight, by ISBN, when the near-cache is disabled
+	private final Map<String, Mono<BookDTO>> inFlightRequests = new ConcurrentHashMap<>();
+	private final AtomicInteger inFlightRequestCount = new AtomicInteger();
+	private final RequestHedger requestHedger;
+	private final MeterRegistry meterRegistry;
+	private final Counter executedLookups;
+	private final Counter coalescedLookups;
+
+	public BookClient(WebClient webClient, MeterRegistry meterRegistry, BookCacheProperties bookCacheProperties,
+			HedgingProperties hedgingProperties) {
 		this.webClient = webClient;	// A WebClient bean as configured previously
+		this.bookCache = bookCacheProperties.enabled() ? buildBookCache(bookCacheProperties, meterRegistry) : null;
+		this.requestHedger = new RequestHedger(hedgingProperties, meterRegistry);
+		this.meterRegistry = meterRegistry;
+		this.executedLookups = lookupsCounter(meterRegistry, false);
+		this.coalescedLookups = lookupsCounter(meterRegistry, true);
+		meterRegistry.gauge(LOOKUPS_METRIC + ".in.flight", Tags.empty(), inFlightRequestCount);
 	}
 
+	/**
+	 * When the near-cache is enabled, a fresh book is returned without calling Catalog Service. A stale one is
+	 * returned straight away too, while it's refreshed in the background: if the refresh fails because Catalog
+	 * Service can't be reached, the stale book is kept and served until it expires. A book no longer found in the
+	 * catalog is evicted.
+	 *
+	 * Concurrent lookups of the same ISBN share a single request to Catalog Service either way: the near-cache hands
+	 * out the load already in flight, and without it the requests are coalesced.
+	 */
 	public Mono<BookDTO> getBookByIsbn(String isbn) {
-		return webClient
-				.get()								// The request should use the GET method.
-				.uri(BOOKS_ROOT_API + isbn)		// The target URI of the request is /books/{isbn}.
-				.retrieve()							// Sends the request and retrieves the response
-				.bodyToMono(BookDTO.class)			// Returns the retrieved object as Mono<Book>
-				.timeout(Duration.ofSeconds(3), Mono.empty())	// Sets a 3-second timeout for the GET request. The fallback returns an empty Mono object.
-				.onErrorResume(WebClientResponseException.NotFound.class, exception -> Mono.empty())	// Returns an empty object when a 404 response is received
-				.retryWhen(Retry.backoff(3, Duration.ofMillis(100)))  // Exponential backoff is used as the retry strategy. Three attempts are allowed with a 100 ms initial backoff.
+		Mono<BookDTO> book = bookCache != null
+				? Mono.fromFuture(() -> cachedLookup(isbn), true)	// Cancelling must not cancel a load other lookups wait for
+				: coalescedRequest(isbn);
+		return book
 				.onErrorResume(Exception.class, exception -> Mono.empty());	// If any error happens after the 3 retry attempts, catch the exception and return an empty object.
+	}
+
+	private AsyncLoadingCache<String, BookDTO> buildBookCache(BookCacheProperties bookCacheProperties,
+			MeterRegistry meterRegistry) {
+		AsyncLoadingCache<String, BookDTO> cache = Caffeine.newBuilder()
+				.maximumSize(bookCacheProperties.maximumSize())
+				.refreshAfterWrite(bookCacheProperties.timeToLive())
+				.expireAfterWrite(bookCacheProperties.maxStale())
+				.recordStats()
+				.buildAsync((isbn, executor) -> {
+					executedLookups.increment();
+					return fetchBookByIsbn(isbn).toFuture();	// An empty result isn't cached
+				});
+		return CaffeineCacheMetrics.monitor(meterRegistry, cache, BOOKS_CACHE);
+	}
+
+	/**
+	 * Caffeine already deduplicates concurrent loads of the same key, so a lookup that finds the book still loading
+	 * joins that load and is counted as coalesced. Peeking through asMap() doesn't record a cache hit or miss.
+	 */
+	private CompletableFuture<BookDTO> cachedLookup(String isbn) {
+		CompletableFuture<BookDTO> load = bookCache.asMap().get(isbn);
+		if (load != null && !load.isDone()) {
+			coalescedLookups.increment();
+		}
+		return bookCache.get(isbn);
+	}
+
+	/**
+	 * Without the near-cache, concurrent lookups of the same ISBN are coalesced: the first one sends the request to Catalog Service and the
+	 * others subscribe to it and receive the same result, timeout and retries included, instead of sending their own.
+	 * Once the request completes, the next lookup of that ISBN sends a new one.
+	 */
+	private Mono<BookDTO> coalescedRequest(String isbn) {
+		return Mono.defer(() -> {
+			Mono<BookDTO> inFlightRequest = inFlightRequests.get(isbn);
+			if (inFlightRequest != null) {
+				coalescedLookups.increment();
+				return inFlightRequest;
+			}
+
+			AtomicReference<Mono<BookDTO>> newRequest = new AtomicReference<>();
+			newRequest.set(fetchBookByIsbn(isbn)
+					.doFinally(signal -> inFlightRequests.remove(isbn, newRequest.get()))
+					.share());
+
+			inFlightRequest = inFlightRequests.putIfAbsent(isbn, newRequest.get());
+			if (inFlightRequest != null) {	// Another lookup registered its request in the meantime
+				coalescedLookups.increment();
+				return inFlightRequest;
+			}
+			executedLookups.increment();
+			return newRequest.get();
+		});
+	}
+
+	/**
+	 * Every attempt is hedged when hedging is enabled, so that a single slow Catalog Service instance doesn't make
+	 * the lookup wait for the whole timeout.
+	 *
+	 * The request is timed, retries included, by its outcome: found, not_found when Catalog Service answered 404,
+	 * timeout, or fallback when it failed otherwise and getBookByIsbn() falls back to an empty or cached book. The
+	 * retried tag tells whether it took more than one attempt.
+	 */
+	private Mono<BookDTO> fetchBookByIsbn(String isbn) {
+		return Mono.defer(() -> {
+			Timer.Sample sample = Timer.start(meterRegistry);
+			AtomicBoolean retried = new AtomicBoolean();
+			inFlightRequestCount.incrementAndGet();
+			return requestHedger.hedge(() -> webClient
+							.get()								// The request should use the GET method.
+							.uri(BOOK_API, isbn)				// The target URI of the request is /books/{isbn}, also the uri tag of its metrics.
+							.retrieve()							// Sends the request and retrieves the response
+							.bodyToMono(BookDTO.class))			// Returns the retrieved object as Mono<Book>
+					.timeout(Duration.ofSeconds(3))	// Sets a 3-second timeout for the GET request. A timeout is not retried, so that a cached book can be served instead.
+					.onErrorResume(WebClientResponseException.NotFound.class, exception -> Mono.empty())	// Returns an empty object when a 404 response is received
+					.retryWhen(Retry.backoff(3, Duration.ofMillis(100))  // Exponential backoff is used as the retry strategy. Three attempts are allowed with a 100 ms initial backoff.
+							.filter(BookClient::isRetryable)
+							.doBeforeRetry(signal -> retried.set(true)))
+					.doOnSuccess(book -> sample.stop(requestTimer(book != null ? "found" : "not_found", retried.get())))
+					.doOnError(exception -> sample.stop(requestTimer(
+							exception instanceof TimeoutException ? "timeout" : "fallback", retried.get())))
+					.doFinally(signal -> inFlightRequestCount.decrementAndGet());
+		});
+	}
+
+	private Timer requestTimer(String outcome, boolean retried) {
+		return Timer.builder(REQUESTS_METRIC)
+				.description("Book lookups sent to Catalog Service, by outcome and by whether they were retried")
+				.tag("outcome", outcome)
+				.tag("retried", String.valueOf(retried))
+				.register(meterRegistry);
+	}
+
+	private static Counter lookupsCounter(MeterRegistry meterRegistry, boolean coalesced) {
+		return Counter.builder(LOOKUPS_METRIC)
+				.description("Book lookups by ISBN, by whether they were sent to Catalog Service or joined one in flight")
+				.tag("coalesced", String.valueOf(coalesced))
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Resolves several books with a single call to Catalog Service, which looks them up with a single query. The
+	 * same timeout, retry and fallback strategy as getBookByIsbn() applies: when Catalog Service can't be reached,
+	 * an empty Mono is returned and all the books are considered unavailable.
+	 */
+	public Mono<BookLookupResponse> getBooksByIsbns(Collection<String> isbns) {
+		return webClient
+				.post()
+				.uri(BOOKS_LOOKUP_API)
+				.bodyValue(new BookLookupRequest(isbns))
+				.retrieve()
+				.bodyToMono(BookLookupResponse.class)
+				.timeout(Duration.ofSeconds(3))
+				.retryWhen(Retry.backoff(3, Duration.ofMillis(100))
+						.filter(BookClient::isRetryable))
+				.onErrorResume(Exception.class, exception -> Mono.empty());
+	}
 
+	/**
+	 * A timeout isn't retried, so that the caller falls back straight away instead of waiting for three more, and
+	 * neither is a 4xx response, such as 400 for an invalid ISBN, which would be the same on every attempt.
+	 */
+	private static boolean isRetryable(Throwable exception) {
+		return !(exception instanceof TimeoutException)
+				&& !(exception instanceof WebClientResponseException responseException
+						&& responseException.getStatusCode().is4xxClientError());
 	}
 
 }
@@ -0,0 +1,92 @@
+package pk.training.basit.polarbookshop.orderservice.web.client;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import pk.training.basit.polarbookshop.orderservice.config.ConcurrencyLimitProperties;
+import pk.training.basit.polarbookshop.orderservice.exception.ConcurrencyLimitExceededException;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+/**
+ * Bounds the requests in flight to Catalog Service with a VegasLimit. A request over the limit is rejected straight
+ * away with a ConcurrencyLimitExceededException instead of queueing in the Tomcat of Catalog Service, and the retry
+ * with backoff of BookClient sends it again shortly after.
+ *
+ * The round-trip time is measured until the response status and headers are received. Connection errors and the
+ * 429 and 503 responses count as drops. A request cancelled before its response, by a timeout or a winning hedge,
+ * only gives its permit back.
+ */
+public class ConcurrencyLimitExchangeFilter implements ExchangeFilterFunction {
+
+	private static final String CONCURRENCY_METRIC = "polar.catalog.client.concurrency";
+
+	private final VegasLimit vegasLimit;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final Counter rejectedRequests;
+
+	public ConcurrencyLimitExchangeFilter(ConcurrencyLimitProperties concurrencyLimitProperties,
+			MeterRegistry meterRegistry) {
+		this.vegasLimit = new VegasLimit(concurrencyLimitProperties.initialLimit(),
+				concurrencyLimitProperties.minLimit(), concurrencyLimitProperties.maxLimit());
+		this.rejectedRequests = Counter.builder(CONCURRENCY_METRIC + ".rejected")
+				.description("Requests to Catalog Service rejected because the concurrency limit was reached")
+				.register(meterRegistry);
+		meterRegistry.gauge(CONCURRENCY_METRIC + ".limit", Tags.empty(), vegasLimit, VegasLimit::getLimit);
+		meterRegistry.gauge(CONCURRENCY_METRIC + ".in.flight", Tags.empty(), inFlight);
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		return Mono.defer(() -> {
+			if (!tryAcquire()) {
+				rejectedRequests.increment();
+				return Mono.error(new ConcurrencyLimitExceededException(vegasLimit.getLimit()));
+			}
+
+			long start = System.nanoTime();
+			AtomicBoolean released = new AtomicBoolean();
+			return next.exchange(request)
+					.doOnNext(response -> release(released, start, isDropped(response.statusCode())))
+					.doOnError(exception -> release(released, start, true))
+					.doFinally(signal -> {
+						if (released.compareAndSet(false, true)) {	// Cancelled, or completed without a response
+							inFlight.decrementAndGet();
+						}
+					});
+		});
+	}
+
+	private boolean tryAcquire() {
+		int current;
+		do {
+			current = inFlight.get();
+			if (current >= vegasLimit.getLimit()) {
+				return false;
+			}
+		} while (!inFlight.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	private void release(AtomicBoolean released, long start, boolean dropped) {
+		if (released.compareAndSet(false, true)) {
+			int current = inFlight.getAndDecrement();
+			vegasLimit.onSample(System.nanoTime() - start, current, dropped);
+		}
+	}
+
+	private static boolean isDropped(HttpStatusCode statusCode) {
+		return statusCode.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+				|| statusCode.value() == HttpStatus.SERVICE_UNAVAILABLE.value();
+	}
+
+}
@@ -0,0 +1,133 @@
+package pk.training.basit.polarbookshop.orderservice.web.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.TimeWindowPercentileHistogram;
+import pk.training.basit.polarbookshop.orderservice.config.HedgingProperties;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends a second request when the first one is slower than most recent requests, and returns whichever response
+ * comes first, cancelling the other request. Behind the Kubernetes Service of Catalog Service the hedge goes out on
+ * another pooled connection, so it usually reaches another instance than the slow one.
+ *
+ * The hedge delay is the configured percentile of the latencies observed over the last minute, recomputed once a
+ * second rather than for every request, since a snapshot of the histogram walks all its buckets. Hedges are bounded
+ * by a budget shared by all the requests: every request deposits maxRatio of a hedge, and a hedge is only sent when
+ * a whole one is available, so hedging can't double the load on Catalog Service when it's slow as a whole.
+ */
+public class RequestHedger {
+
+	private static final String HEDGES_METRIC = "polar.book.client.hedges";
+
+	// The budget is kept in thousandths of a hedge
+	private static final long HEDGE_COST = 1000;
+	private static final long DELAY_REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final boolean enabled;
+	private final Duration minDelay;
+	private final long deposit;
+	private final long capacity;
+	private final AtomicLong balance;
+	private final TimeWindowPercentileHistogram latencies;
+	private final AtomicLong delayRefreshedAt;
+	private volatile long hedgeDelayNanos;
+	private final Counter firedHedges;
+	private final Counter wonHedges;
+
+	public RequestHedger(HedgingProperties hedgingProperties, MeterRegistry meterRegistry) {
+		this.enabled = hedgingProperties.enabled();
+		this.minDelay = hedgingProperties.minDelay();
+		this.deposit = Math.round(hedgingProperties.maxRatio() * HEDGE_COST);
+		this.capacity = hedgingProperties.maxBurst() * HEDGE_COST;
+		this.balance = new AtomicLong(capacity);
+		this.latencies = new TimeWindowPercentileHistogram(Clock.SYSTEM, DistributionStatisticConfig.builder()
+				.percentiles(hedgingProperties.percentile())
+				.percentilePrecision(2)
+				.expiry(Duration.ofMinutes(1))
+				.bufferLength(3)
+				.build()
+				.merge(DistributionStatisticConfig.DEFAULT), false);
+		this.delayRefreshedAt = new AtomicLong(System.nanoTime());
+		this.hedgeDelayNanos = minDelay.toNanos();
+		this.firedHedges = hedgesCounter(meterRegistry, "fired");
+		this.wonHedges = hedgesCounter(meterRegistry, "won");
+		meterRegistry.gauge(HEDGES_METRIC + ".delay", Tags.empty(), this, hedger -> hedger.hedgeDelayNanos / 1e6);
+	}
+
+	/**
+	 * Subscribes to the request, and again after the hedge delay if the first subscription hasn't signalled anything
+	 * yet and the budget allows it. The first signal wins, so an error of the first request isn't hedged: it's left
+	 * to the retry strategy of the caller.
+	 */
+	public <T> Mono<T> hedge(Supplier<Mono<T>> request) {
+		if (!enabled) {
+			return request.get();
+		}
+
+		return Mono.defer(() -> {
+			balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+			Mono<T> hedgedRequest = Mono.delay(hedgeDelay())
+					.flatMap(tick -> {
+						if (!tryAcquireHedge()) {
+							return Mono.never();
+						}
+						firedHedges.increment();
+						return timed(request.get())
+								.doOnSuccess(result -> wonHedges.increment());	// Only reached when it's answered first
+					});
+			return Mono.firstWithSignal(timed(request.get()), hedgedRequest);
+		});
+	}
+
+	/**
+	 * The first request to find the delay older than a second recomputes it, the others keep using the current one.
+	 */
+	private Duration hedgeDelay() {
+		long now = System.nanoTime();
+		long refreshedAt = delayRefreshedAt.get();
+		if (now - refreshedAt >= DELAY_REFRESH_INTERVAL_NANOS && delayRefreshedAt.compareAndSet(refreshedAt, now)) {
+			double percentileNanos = latencies.takeSnapshot(0, 0, 0).percentileValues()[0].value(TimeUnit.NANOSECONDS);
+			hedgeDelayNanos = Math.max(minDelay.toNanos(), (long) percentileNanos);
+		}
+		return Duration.ofNanos(hedgeDelayNanos);
+	}
+
+	/**
+	 * Records the latency of a request, including a request cancelled because the other one won: its latency is at
+	 * least the time it waited, and leaving it out would make the slow requests look faster than they are.
+	 */
+	private <T> Mono<T> timed(Mono<T> request) {
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return request.doFinally(signal -> latencies.recordLong(System.nanoTime() - start));
+		});
+	}
+
+	private boolean tryAcquireHedge() {
+		long current;
+		do {
+			current = balance.get();
+			if (current < HEDGE_COST) {
+				return false;
+			}
+		} while (!balance.compareAndSet(current, current - HEDGE_COST));
+		return true;
+	}
+
+	private static Counter hedgesCounter(MeterRegistry meterRegistry, String outcome) {
+		return Counter.builder(HEDGES_METRIC)
+				.description("Hedged book lookups, by whether the hedge was sent or answered before the first request")
+				.tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+
+}
@@ -0,0 +1,73 @@
+package pk.training.basit.polarbookshop.orderservice.web.client;
+
+/**
+ * Concurrency limit adjusted with the TCP Vegas algorithm. The queue building up in the server is estimated from
+ * how much longer the round-trip time is than the lowest one observed, the no-load RTT:
+ *
+ *     queue = limit * (1 - rttNoLoad / rtt)
+ *
+ * The limit grows quickly while almost nothing queues, slowly while a little queues, and shrinks once the queue
+ * gets longer than beta or a request is dropped. The thresholds grow with log10(limit), so that large limits
+ * tolerate proportionally shorter queues.
+ *
+ * The no-load RTT is probed again every PROBE_INTERVAL samples, so that a server which got permanently slower,
+ * after a deployment for instance, doesn't keep the limit at its minimum.
+ */
+public class VegasLimit {
+
+	private static final int PROBE_INTERVAL = 1000;
+
+	private final int minLimit;
+	private final int maxLimit;
+
+	private double limit;
+	private long rttNoLoad;
+	private int samplesToProbe = PROBE_INTERVAL;
+
+	public VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+	}
+
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	/**
+	 * Updates the limit with the round-trip time of a request, and whether it was dropped. Samples taken while less
+	 * than half of the limit was in use tell nothing about the capacity of the server, and are ignored.
+	 */
+	public synchronized int onSample(long rttNanos, int inFlight, boolean dropped) {
+		if (--samplesToProbe <= 0) {
+			samplesToProbe = PROBE_INTERVAL;
+			rttNoLoad = 0;
+		}
+		if (rttNoLoad == 0 || rttNanos < rttNoLoad) {
+			rttNoLoad = rttNanos;
+			return (int) limit;
+		}
+
+		double log10Limit = Math.max(1, Math.log10(limit));
+		double alpha = 3 * log10Limit;
+		double beta = 6 * log10Limit;
+
+		double newLimit = limit;
+		if (dropped) {
+			newLimit = limit - log10Limit;
+		} else if (inFlight * 2 >= limit) {
+			double queue = limit * (1 - (double) rttNoLoad / rttNanos);
+			if (queue <= log10Limit) {
+				newLimit = limit + beta;
+			} else if (queue < alpha) {
+				newLimit = limit + log10Limit;
+			} else if (queue > beta) {
+				newLimit = limit - log10Limit;
+			}
+		}
+
+		limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+		return (int) limit;
+	}
+
+}
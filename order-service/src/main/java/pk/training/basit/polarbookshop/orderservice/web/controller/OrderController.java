@@ -3,13 +3,24 @@ package pk.training.basit.polarbookshop.orderservice.web.controller;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import pk.training.basit.polarbookshop.orderservice.web.dto.CursorPagedResponse;
 import pk.training.basit.polarbookshop.orderservice.web.dto.PagedResponse;
+import pk.training.basit.polarbookshop.orderservice.web.pagination.ContinuationToken;
+import pk.training.basit.polarbookshop.orderservice.web.request.MultiLineOrderRequest;
 import pk.training.basit.polarbookshop.orderservice.web.request.OrderRequest;
+import pk.training.basit.polarbookshop.orderservice.enums.OrderStatus;
 import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
 import pk.training.basit.polarbookshop.orderservice.service.OrderService;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+
 @RestController
 @RequestMapping("orders")
 public class OrderController {
@@ -20,13 +31,46 @@ public class OrderController {
         this.orderService = orderService;
     }
 
-    // A Flux is used to publish multiple orders (0 .. N).
+    /**
+     * Clients that don't need totalElements and totalPages can pass count=false to get a slice, which only tells
+     * whether a next page exists and saves the count query.
+     */
     @GetMapping
-    public Mono<PagedResponse> getAllOrders(Pageable pageable) {
+    public Mono<PagedResponse> getAllOrders(@RequestParam(defaultValue = "true") boolean count, Pageable pageable) {
+        if (!count) {
+            Mono<Slice<Order>> monoSlicedOrders = orderService.getOrderSlice(pageable);
+            return monoSlicedOrders.map(slicedOrders -> PagedResponse.builder(slicedOrders).build());
+        }
         Mono<Page<Order>> monoPagedOrders = orderService.getAllOrders(pageable);
          return monoPagedOrders.map(pagedOrders -> PagedResponse.builder(pagedOrders).build());
     }
 
+    /**
+     * Cursor-based variant of the GET handler, selected when the cursor parameter is present, for scrolling deep
+     * into the orders. Orders are returned newest first. An empty cursor returns the first window, and every
+     * response carries the cursor of the next one. Only the size of the pageable is used.
+     */
+    @GetMapping(params = "cursor")
+    public Mono<CursorPagedResponse> getOrderWindow(@RequestParam String cursor, Pageable pageable) {
+        Long afterId = ContinuationToken.decode(cursor);
+        Mono<Window<Order>> monoWindowOrders = orderService.getOrderWindow(afterId, pageable.getPageSize());
+        return monoWindowOrders.map(windowOrders -> CursorPagedResponse.builder(windowOrders).build());
+    }
+
+    /**
+     * Streams all the orders matching the optional filters, as newline-delimited JSON or as Server-Sent Events
+     * depending on the Accept header, instead of paging through them. Orders are read from the database as the
+     * client consumes them, so a slow client slows the query down rather than making the orders pile up in memory.
+     * The date range is inclusive of from and exclusive of to, as in from=2023-09-01T00:00:00Z.
+     */
+    @GetMapping(value = "export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Order> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) OrderStatus status) {
+        return orderService.exportOrders(from, to, status);
+    }
+
     /**
      * Accepts an OrderRequest object, validated and used to create an order. The created order is
      * returned as a Mono.
@@ -35,4 +79,13 @@ public class OrderController {
     public Mono<Order> submitOrder(@RequestBody @Valid OrderRequest orderRequest) {
         return orderService.submitOrder(orderRequest.isbn(), orderRequest.quantity());
     }
+
+    /**
+     * Accepts several order lines at once. Each line is stored as its own order, accepted or rejected, and the
+     * created orders are returned as a Flux in the order of the lines.
+     */
+    @PostMapping("batch")
+    public Flux<Order> submitOrders(@RequestBody @Valid MultiLineOrderRequest multiLineOrderRequest) {
+        return orderService.submitOrders(multiLineOrderRequest.lines());
+    }
 }
@@ -0,0 +1,7 @@
+package pk.training.basit.polarbookshop.orderservice.web.dto;
+
+import java.util.Collection;
+
+public record BookLookupRequest(
+	Collection<String> isbns
+){}
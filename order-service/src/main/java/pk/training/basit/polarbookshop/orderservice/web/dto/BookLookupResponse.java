@@ -0,0 +1,8 @@
+package pk.training.basit.polarbookshop.orderservice.web.dto;
+
+import java.util.List;
+
+public record BookLookupResponse(
+	List<BookDTO> books,
+	List<String> missingIsbns
+){}
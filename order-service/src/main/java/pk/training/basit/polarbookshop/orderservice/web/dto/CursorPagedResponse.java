@@ -0,0 +1,43 @@
+package pk.training.basit.polarbookshop.orderservice.web.dto;
+
+import org.springframework.data.domain.Window;
+import pk.training.basit.polarbookshop.orderservice.web.pagination.ContinuationToken;
+
+import java.util.List;
+
+/**
+ * Variant of PagedResponse for cursor-based pagination. Instead of page numbers and totals, it carries the
+ * opaque cursor to send back to get the next window, which is null on the last one.
+ */
+public record CursorPagedResponse(
+        List<?> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {
+
+    public static CursorPagedResponse.Builder builder(Window<?> window) {
+        return new CursorPagedResponse.Builder(window);
+    }
+
+    //Builder
+    public static final class Builder {
+
+        List<?> content;
+        int size;
+        boolean hasNext;
+        String nextCursor;
+
+        public Builder(Window<?> window) {
+            this.content = window.getContent();
+            this.size = window.size();
+            this.hasNext = window.hasNext();
+            this.nextCursor = window.hasNext() ? ContinuationToken.encode(window.positionAt(window.size() - 1)) : null;
+        }
+
+        public CursorPagedResponse build() {
+            return new CursorPagedResponse(content, size, hasNext, nextCursor);
+        }
+    }
+
+}
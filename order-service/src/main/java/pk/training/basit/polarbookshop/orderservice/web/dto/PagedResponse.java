@@ -1,19 +1,25 @@
 package pk.training.basit.polarbookshop.orderservice.web.dto;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.Collection;
 import java.util.List;
 
+/**
+ * The totals are only known when built from a Page. When built from a Slice they are null, and so left out of
+ * the JSON by the non_null inclusion configured in jackson.yml.
+ */
 public record PagedResponse(
         Collection<?> content,
         int currentPage,
-        long totalElements,
-        int totalPages
+        Long totalElements,
+        Integer totalPages,
+        boolean hasNext
 ) {
 
-    public static Builder builder(Page<?> page) {
-        return new Builder(page);
+    public static Builder builder(Slice<?> slice) {
+        return new Builder(slice);
     }
 
     //Builder
@@ -21,22 +27,27 @@ public record PagedResponse(
 
         List<?> content;
         int currentPage;
-        long totalElements;
-        int totalPages;
-
-        public Builder(Page<?> page) {
-            this.content = page.getContent();
-            this.currentPage = page.getNumber() + 1;
-            this.totalElements = page.getTotalElements();
-            this.totalPages = page.getTotalPages();
+        Long totalElements;
+        Integer totalPages;
+        boolean hasNext;
+
+        public Builder(Slice<?> slice) {
+            this.content = slice.getContent();
+            this.currentPage = slice.getNumber() + 1;
+            this.hasNext = slice.hasNext();
+            if (slice instanceof Page<?> page) {
+                this.totalElements = page.getTotalElements();
+                this.totalPages = page.getTotalPages();
+            }
         }
 
         public PagedResponse build() {
             List<?> content = this.content;
             int currentPage = this.currentPage;
-            long totalElements = this.totalElements;
-            int totalPages = this.totalPages;
-            return new PagedResponse(content, currentPage, totalElements, totalPages);
+            Long totalElements = this.totalElements;
+            Integer totalPages = this.totalPages;
+            boolean hasNext = this.hasNext;
+            return new PagedResponse(content, currentPage, totalElements, totalPages, hasNext);
         }
     }
 
@@ -0,0 +1,53 @@
+package pk.training.basit.polarbookshop.orderservice.web.pagination;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.util.StringUtils;
+import pk.training.basit.polarbookshop.orderservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Converts the keyset scroll position of an order window into an opaque continuation token and back.
+ *
+ * Orders are scrolled newest first on their identifier only, so the token is the Base64 (URL safe) encoding of the
+ * identifier of the last order of the previous window.
+ */
+public final class ContinuationToken {
+
+    private static final String ID_PROPERTY = "id";
+
+    private ContinuationToken() {
+
+    }
+
+    /**
+     * Returns the token pointing after the given position, or null when the position is not a keyset position.
+     */
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keysetPosition) || keysetPosition.isInitial()) {
+            return null;
+        }
+
+        byte[] id = String.valueOf(keysetPosition.getKeys().get(ID_PROPERTY)).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+    }
+
+    /**
+     * Returns the identifier of the order the token points after, or null for an empty token, which denotes the
+     * first window.
+     */
+    public static Long decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("The cursor " + token + " is not valid.", ex);
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package pk.training.basit.polarbookshop.orderservice.web.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record MultiLineOrderRequest (
+
+	@NotEmpty(message = "The order must contain at least one line.")
+	@Size(max = 50, message = "You cannot order more than 50 lines at once.")	// Catalog Service resolves at most 50 ISBNs per lookup
+	List<@Valid OrderRequest> lines
+
+){}
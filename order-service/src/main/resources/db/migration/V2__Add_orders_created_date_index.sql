@@ -0,0 +1,2 @@
+-- Supports the date range filter of the order export
+CREATE INDEX orders_created_date_idx ON orders (created_date);
@@ -0,0 +1,56 @@
+package pk.training.basit.polarbookshop.orderservice.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBindingProcessor;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.orderservice.web.dto.PagedResponse;
+import pk.training.basit.polarbookshop.orderservice.web.request.OrderRequest;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeImageConfigurationTests {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	@BeforeEach
+	void registerHints() {
+		new NativeImageConfiguration.OrderServiceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+		new RegisterReflectionForBindingProcessor().registerReflectionHints(hints.reflection(),
+				NativeImageConfiguration.class);
+	}
+
+	@Test
+	void whenRegisteredThenEveryConfigurationFileIsIncluded() throws IOException {
+		Resource[] configurationFiles = new PathMatchingResourcePatternResolver().getResources("classpath*:*.yml");
+		assertThat(configurationFiles).isNotEmpty();
+		for (Resource configurationFile : configurationFiles) {
+			assertThat(RuntimeHintsPredicates.resource().forResource(configurationFile.getFilename())).accepts(hints);
+		}
+	}
+
+	@Test
+	void whenRegisteredThenOrdersCanBeAudited() {
+		assertThat(RuntimeHintsPredicates.reflection().onType(Order.class).withMemberCategories(
+				MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+	}
+
+	@Test
+	void whenRegisteredThenTheJsonTypesCanBeBound() {
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(PagedResponse.class, "content")).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(Order.class, "bookIsbn")).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(OrderRequest.class, "isbn")).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(BookDTO.class, "price")).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(ClientProperties.class, "catalogServiceUri"))
+				.accepts(hints);
+	}
+
+}
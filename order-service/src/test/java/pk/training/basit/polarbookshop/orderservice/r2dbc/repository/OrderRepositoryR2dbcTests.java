@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -14,8 +15,15 @@ import pk.training.basit.polarbookshop.orderservice.config.ReactiveAuditingConfi
 import pk.training.basit.polarbookshop.orderservice.enums.OrderStatus;
 import pk.training.basit.polarbookshop.orderservice.service.OrderService;
 import pk.training.basit.polarbookshop.orderservice.service.impl.OrderServiceImpl;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookDTO;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.IntStream;
+
 @DataR2dbcTest                                  // Identifies a test class that focuses on R2DBC components
 @Import(ReactiveAuditingConfiguration.class)    // Imports R2DBC configuration needed to enable auditing
 @Testcontainers                                 // Activates automatic startup and cleanup of test containers
@@ -61,4 +69,57 @@ class OrderRepositoryR2dbcTests {
                 .verifyComplete();      // Verifies that the reactive stream completed successfully
     }
 
+    @Test
+    void insertAllOrdersInOneStatement() {
+        var acceptedOrder = OrderServiceImpl.buildAcceptedOrder(new BookDTO("1234567891", "Title", "Author", 9.90), 1);
+        var rejectedOrder = OrderServiceImpl.buildRejectedOrder("1234567892", 2);
+
+        StepVerifier.create(orderRepository.insertAll(List.of(acceptedOrder, rejectedOrder)))
+                .expectNextMatches(order -> order.id() != null && order.status().equals(OrderStatus.ACCEPTED)
+                        && order.bookName().equals("Title - Author") && order.version() == 1)
+                .expectNextMatches(order -> order.id() != null && order.status().equals(OrderStatus.REJECTED)
+                        && order.bookName() == null && order.createdDate() != null)
+                .verifyComplete();
+    }
+
+    @Test
+    void findSliceAndWindowsWithoutCount() {
+        var orders = IntStream.range(0, 5)
+                .mapToObj(i -> OrderServiceImpl.buildRejectedOrder("123456789" + i, 1))
+                .toList();
+
+        StepVerifier.create(orderRepository.deleteAll()
+                        .thenMany(orderRepository.insertAll(orders))
+                        .then(orderRepository.findSliceBy(PageRequest.of(1, 2))))
+                .expectNextMatches(slice -> slice.getContent().size() == 2 && slice.hasNext())
+                .verifyComplete();
+
+        StepVerifier.create(orderRepository.findWindowBefore(null, 3)
+                        .flatMap(window -> {
+                            Long lastId = window.getContent().get(window.size() - 1).id();
+                            return window.hasNext() ? orderRepository.findWindowBefore(lastId, 3) : Mono.empty();
+                        }))
+                .expectNextMatches(window -> window.size() == 2 && !window.hasNext()
+                        && window.getContent().get(0).id() > window.getContent().get(1).id())
+                .verifyComplete();
+    }
+
+    @Test
+    void streamOrdersMatchingFilters() {
+        var acceptedOrder = OrderServiceImpl.buildAcceptedOrder(new BookDTO("1234567891", "Title", "Author", 9.90), 1);
+        var rejectedOrder = OrderServiceImpl.buildRejectedOrder("1234567892", 2);
+        var from = Instant.now().minus(1, ChronoUnit.HOURS);
+
+        StepVerifier.create(orderRepository.deleteAll()
+                        .thenMany(orderRepository.insertAll(List.of(acceptedOrder, rejectedOrder, acceptedOrder)))
+                        .thenMany(orderRepository.streamAllBy(from, null, OrderStatus.ACCEPTED)))
+                .expectNextMatches(order -> order.status().equals(OrderStatus.ACCEPTED))
+                .expectNextMatches(order -> order.status().equals(OrderStatus.ACCEPTED))
+                .verifyComplete();
+
+        StepVerifier.create(orderRepository.streamAllBy(null, from, null))
+                .expectNextCount(0)
+                .verifyComplete();
+    }
+
 }
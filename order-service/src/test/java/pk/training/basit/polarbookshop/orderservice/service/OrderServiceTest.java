@@ -0,0 +1,90 @@
+package pk.training.basit.polarbookshop.orderservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
+import pk.training.basit.polarbookshop.orderservice.r2dbc.repository.OrderRepository;
+import pk.training.basit.polarbookshop.orderservice.service.impl.OrderServiceImpl;
+import pk.training.basit.polarbookshop.orderservice.web.client.BookClient;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private BookClient bookClient;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    private static Flux<Order> rejectedOrders(int count) {
+        return Flux.fromStream(IntStream.range(0, count)
+                .mapToObj(i -> OrderServiceImpl.buildRejectedOrder("123456789" + i, 1)));
+    }
+
+    @Test
+    void whenFirstPageNotFullThenTotalKnownWithoutCount() {
+        var pageable = PageRequest.of(0, 5);
+        when(orderRepository.findAllBy(pageable)).thenReturn(rejectedOrders(3));
+
+        StepVerifier.create(orderService.getAllOrders(pageable))
+                .expectNextMatches(page -> page.getContent().size() == 3 && page.getTotalElements() == 3)
+                .verifyComplete();
+
+        verify(orderRepository, never()).count();
+    }
+
+    @Test
+    void whenPageFullThenTotalFromCount() {
+        var pageable = PageRequest.of(1, 5);
+        when(orderRepository.findAllBy(pageable)).thenReturn(rejectedOrders(5));
+        when(orderRepository.count()).thenReturn(Mono.just(42L));
+
+        StepVerifier.create(orderService.getAllOrders(pageable))
+                .expectNextMatches(page -> page.getContent().size() == 5 && page.getTotalElements() == 42
+                        && page.getTotalPages() == 9)
+                .verifyComplete();
+
+        // The page query is subscribed to only once
+        verify(orderRepository).findAllBy(pageable);
+    }
+
+    @Test
+    void whenOrderSubmittedThenTimedByOutcome() {
+        var book = new BookDTO("1234567890", "Title", "Author", 9.90);
+        when(bookClient.getBookByIsbn("1234567890")).thenReturn(Mono.just(book));
+        when(bookClient.getBookByIsbn("1234567891")).thenReturn(Mono.empty());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(orderService.submitOrder("1234567890", 1)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(orderService.submitOrder("1234567891", 1)).expectNextCount(1).verifyComplete();
+
+        assertThat(meterRegistry.get("polar.orders.submit").tag("outcome", "accepted").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("polar.orders.submit").tag("outcome", "rejected").timer().count()).isEqualTo(1);
+    }
+
+}
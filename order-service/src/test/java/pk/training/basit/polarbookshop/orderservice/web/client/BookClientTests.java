@@ -1,6 +1,12 @@
 package pk.training.basit.polarbookshop.orderservice.web.client;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -9,8 +15,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import pk.training.basit.polarbookshop.orderservice.config.BookCacheProperties;
+import pk.training.basit.polarbookshop.orderservice.config.HedgingProperties;
 import pk.training.basit.polarbookshop.orderservice.web.client.BookClient;
 import pk.training.basit.polarbookshop.orderservice.web.dto.BookDTO;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -18,6 +27,8 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * When using mocks, there might be situations where the test results depend on the order in which test cases are
  * executed, which tend to be the same on the same operating system. To prevent unwanted execution dependencies, you
@@ -28,6 +39,8 @@ import org.springframework.web.reactive.function.client.WebClient;
 class BookClientTests {
 
 	private MockWebServer mockWebServer;
+	private WebClient webClient;
+	private SimpleMeterRegistry meterRegistry;
 	private BookClient bookClient;
 
 	@BeforeEach
@@ -38,10 +51,40 @@ class BookClientTests {
 		this.mockWebServer.start();
 
 		// Uses the mock server URL as the base URL for WebClient
-		var webClient = WebClient.builder()
+		this.webClient = WebClient.builder()
 				.baseUrl(mockWebServer.url("/").uri().toString())
 				.build();
-		this.bookClient = new BookClient(webClient);
+		this.meterRegistry = new SimpleMeterRegistry();
+		this.bookClient = new BookClient(webClient, meterRegistry, bookCacheProperties(false, Duration.ofMinutes(1)),
+				hedgingProperties(false));
+	}
+
+	private static BookCacheProperties bookCacheProperties(boolean enabled, Duration timeToLive) {
+		return new BookCacheProperties(enabled, 100, timeToLive, Duration.ofMinutes(30));
+	}
+
+	private static HedgingProperties hedgingProperties(boolean enabled) {
+		return new HedgingProperties(enabled, 0.95, Duration.ofMillis(50), 0.05, 1);
+	}
+
+	private static MockResponse bookResponse(String bookIsbn) {
+		return new MockResponse()
+				.addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.setBody("""
+							{
+								"isbn": %s,
+								"title": "Title",
+								"author": "Author",
+								"price": 9.90
+							}
+						""".formatted(bookIsbn));
+	}
+
+	private Timer requestTimer(String outcome, boolean retried) {
+		return meterRegistry.get("polar.book.client.requests")
+				.tag("outcome", outcome)
+				.tag("retried", String.valueOf(retried))
+				.timer();
 	}
 
 	@AfterEach
@@ -76,6 +119,8 @@ class BookClientTests {
 		StepVerifier.create(book)
 				.expectNextMatches(b -> b.isbn().equals(bookIsbn))// Asserts that the Book returned has the ISBN requested
 				.verifyComplete(); // Verifies that the reactive stream completed successfully
+
+		assertThat(requestTimer("found", false).count()).isEqualTo(1);
 	}
 
 	@Test
@@ -91,6 +136,215 @@ class BookClientTests {
 		StepVerifier.create(bookClient.getBookByIsbn(bookIsbn))
 				.expectNextCount(0)
 				.verifyComplete();
+
+		assertThat(requestTimer("not_found", false).count()).isEqualTo(1);
+	}
+
+	@Test
+	void whenCatalogFailsAfterRetriesThenTimedAsRetriedFallback() {
+		// The request and its 3 retries all fail
+		for (int i = 0; i < 4; i++) {
+			mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+		}
+
+		StepVerifier.create(bookClient.getBookByIsbn("1234567892"))
+				.expectNextCount(0)
+				.verifyComplete();
+
+		assertThat(requestTimer("fallback", true).count()).isEqualTo(1);
+	}
+
+	@Test
+	void whenSameBookRequestedConcurrentlyThenCatalogCalledOnce() {
+		var bookIsbn = "1234567892";
+
+		// The response is delayed so that all the lookups are in flight at the same time
+		var mockResponse = new MockResponse()
+				.addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.setBody("""
+							{
+								"isbn": %s,
+								"title": "Title",
+								"author": "Author",
+								"price": 9.90
+							}
+						""".formatted(bookIsbn))
+				.setBodyDelay(200, TimeUnit.MILLISECONDS);
+
+		mockWebServer.enqueue(mockResponse);
+
+		Flux<BookDTO> books = Flux.range(0, 10)
+				.flatMap(i -> bookClient.getBookByIsbn(bookIsbn));
+
+		StepVerifier.create(books)
+				.expectNextCount(10)
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+
+		assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+		assertThat(meterRegistry.get("polar.book.client.lookups").tag("coalesced", "false").counter().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("polar.book.client.lookups").tag("coalesced", "true").counter().count())
+				.isEqualTo(9);
+	}
+
+	@Test
+	void whenSameBookRequestedConcurrentlyWithCacheThenCatalogCalledOnce() {
+		var bookIsbn = "1234567897";
+		var cachingBookClient = new BookClient(webClient, meterRegistry, bookCacheProperties(true, Duration.ofMinutes(1)),
+				hedgingProperties(false));
+
+		// The response is delayed so that all the lookups wait for the same load
+		mockWebServer.enqueue(bookResponse(bookIsbn).setBodyDelay(200, TimeUnit.MILLISECONDS));
+
+		Flux<BookDTO> books = Flux.range(0, 10)
+				.flatMap(i -> cachingBookClient.getBookByIsbn(bookIsbn));
+
+		StepVerifier.create(books)
+				.expectNextCount(10)
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+
+		assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+		assertThat(meterRegistry.get("polar.book.client.lookups").tag("coalesced", "false").counter().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("polar.book.client.lookups").tag("coalesced", "true").counter().count())
+				.isEqualTo(9);
+		assertThat(meterRegistry.get("polar.book.client.lookups.in.flight").gauge().value()).isZero();
+	}
+
+	@Test
+	void whenBookCachedThenCatalogNotCalledAgain() {
+		var bookIsbn = "1234567893";
+		var cachingBookClient = new BookClient(webClient, meterRegistry, bookCacheProperties(true, Duration.ofMinutes(1)),
+				hedgingProperties(false));
+
+		mockWebServer.enqueue(bookResponse(bookIsbn));
+
+		StepVerifier.create(cachingBookClient.getBookByIsbn(bookIsbn))
+				.expectNextMatches(b -> b.isbn().equals(bookIsbn))
+				.verifyComplete();
+		StepVerifier.create(cachingBookClient.getBookByIsbn(bookIsbn))
+				.expectNextMatches(b -> b.isbn().equals(bookIsbn))
+				.verifyComplete();
+
+		assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	void whenBookStaleAndCatalogUnavailableThenReturnStaleBook() throws InterruptedException {
+		var bookIsbn = "1234567894";
+		var cachingBookClient = new BookClient(webClient, meterRegistry, bookCacheProperties(true, Duration.ofMillis(50)),
+				hedgingProperties(false));
+
+		mockWebServer.enqueue(bookResponse(bookIsbn));
+		StepVerifier.create(cachingBookClient.getBookByIsbn(bookIsbn))
+				.expectNextMatches(b -> b.isbn().equals(bookIsbn))
+				.verifyComplete();
+		mockWebServer.takeRequest();
+
+		Thread.sleep(100);
+
+		// The background refresh and its 3 retries all fail
+		for (int i = 0; i < 4; i++) {
+			mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+		}
+
+		// The stale book is returned while it's refreshed
+		StepVerifier.create(cachingBookClient.getBookByIsbn(bookIsbn))
+				.expectNextMatches(b -> b.isbn().equals(bookIsbn))
+				.verifyComplete();
+
+		for (int i = 0; i < 4; i++) {
+			assertThat(mockWebServer.takeRequest(3, TimeUnit.SECONDS)).isNotNull();
+		}
+
+		// The stale book is kept after the refresh failed
+		mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+		StepVerifier.create(cachingBookClient.getBookByIsbn(bookIsbn))
+				.expectNextMatches(b -> b.isbn().equals(bookIsbn))
+				.verifyComplete();
+	}
+
+	@Test
+	void whenCatalogSlowThenHedgedRequestAnswers() {
+		var bookIsbn = "1234567895";
+		var hedgingBookClient = new BookClient(webClient, meterRegistry, bookCacheProperties(false, Duration.ofMinutes(1)),
+				hedgingProperties(true));
+
+		// The first request reaches a slow instance, the hedge sent after 50 ms a healthy one
+		mockWebServer.enqueue(bookResponse(bookIsbn).setBodyDelay(2, TimeUnit.SECONDS));
+		mockWebServer.enqueue(bookResponse(bookIsbn));
+
+		StepVerifier.create(hedgingBookClient.getBookByIsbn(bookIsbn))
+				.expectNextMatches(b -> b.isbn().equals(bookIsbn))
+				.expectComplete()
+				.verify(Duration.ofSeconds(1));
+
+		assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+		assertThat(meterRegistry.get("polar.book.client.hedges").tag("outcome", "fired").counter().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("polar.book.client.hedges").tag("outcome", "won").counter().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void whenHedgeBudgetSpentThenNoMoreHedges() {
+		var hedgingBookClient = new BookClient(webClient, meterRegistry, bookCacheProperties(false, Duration.ofMinutes(1)),
+				hedgingProperties(true));
+
+		// The budget allows a single hedge, and a lookup only deposits a twentieth of another one
+		for (int i = 0; i < 4; i++) {
+			mockWebServer.enqueue(bookResponse("1234567896").setBodyDelay(200, TimeUnit.MILLISECONDS));
+		}
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(hedgingBookClient.getBookByIsbn("1234567896"))
+					.expectNextMatches(b -> b.isbn().equals("1234567896"))
+					.expectComplete()
+					.verify(Duration.ofSeconds(3));
+		}
+
+		assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+		assertThat(meterRegistry.get("polar.book.client.hedges").tag("outcome", "fired").counter().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void whenBooksLookedUpThenReturnFoundAndMissing() {
+		var mockResponse = new MockResponse()
+				.addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.setBody("""
+							{
+								"books": [
+									{
+										"isbn": "1234567890",
+										"title": "Title",
+										"author": "Author",
+										"price": 9.90
+									}
+								],
+								"missingIsbns": ["1234567891"]
+							}
+						""");
+
+		mockWebServer.enqueue(mockResponse);
+
+		StepVerifier.create(bookClient.getBooksByIsbns(List.of("1234567890", "1234567891")))
+				.expectNextMatches(bookLookup -> bookLookup.books().get(0).isbn().equals("1234567890")
+						&& bookLookup.missingIsbns().equals(List.of("1234567891")))
+				.verifyComplete();
+	}
+
+	@Test
+	void whenBooksLookupRejectedThenNotRetried() {
+		mockWebServer.enqueue(new MockResponse().setResponseCode(400));
+
+		StepVerifier.create(bookClient.getBooksByIsbns(List.of("123")))
+				.expectNextCount(0)
+				.verifyComplete();
+
+		assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package pk.training.basit.polarbookshop.orderservice.web.client;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pk.training.basit.polarbookshop.orderservice.config.ConcurrencyLimitProperties;
+import pk.training.basit.polarbookshop.orderservice.exception.ConcurrencyLimitExceededException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitExchangeFilterTests {
+
+	private MockWebServer mockWebServer;
+	private SimpleMeterRegistry meterRegistry;
+	private WebClient webClient;
+
+	@BeforeEach
+	void setup() throws IOException {
+		this.mockWebServer = new MockWebServer();
+		this.mockWebServer.start();
+		this.meterRegistry = new SimpleMeterRegistry();
+		this.webClient = WebClient.builder()
+				.baseUrl(mockWebServer.url("/").uri().toString())
+				.filter(new ConcurrencyLimitExchangeFilter(new ConcurrencyLimitProperties(true, 1, 1, 1), meterRegistry))
+				.build();
+	}
+
+	@AfterEach
+	void clean() throws IOException {
+		this.mockWebServer.shutdown();
+	}
+
+	@Test
+	void whenLimitReachedThenRequestRejected() {
+		mockWebServer.enqueue(new MockResponse().setBody("first").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+		Mono<String> first = webClient.get().uri("/books/1234567891").retrieve().bodyToMono(String.class);
+		Mono<String> second = Mono.delay(Duration.ofMillis(100))
+				.then(webClient.get().uri("/books/1234567892").retrieve().bodyToMono(String.class));
+
+		StepVerifier.create(Mono.zip(first, second.onErrorResume(ConcurrencyLimitExceededException.class,
+						exception -> Mono.just("rejected"))))
+				.expectNextMatches(results -> results.getT1().equals("first") && results.getT2().equals("rejected"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+
+		assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+		assertThat(meterRegistry.get("polar.catalog.client.concurrency.rejected").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("polar.catalog.client.concurrency.in.flight").gauge().value()).isZero();
+	}
+
+	@Test
+	void whenResponseReceivedThenPermitReleased() {
+		mockWebServer.enqueue(new MockResponse().setBody("first"));
+		mockWebServer.enqueue(new MockResponse().setBody("second"));
+
+		StepVerifier.create(webClient.get().uri("/books/1234567891").retrieve().bodyToMono(String.class))
+				.expectNext("first")
+				.verifyComplete();
+		StepVerifier.create(webClient.get().uri("/books/1234567892").retrieve().bodyToMono(String.class))
+				.expectNext("second")
+				.verifyComplete();
+
+		assertThat(meterRegistry.get("polar.catalog.client.concurrency.limit").gauge().value()).isEqualTo(1);
+	}
+
+}
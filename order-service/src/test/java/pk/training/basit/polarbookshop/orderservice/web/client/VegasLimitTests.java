@@ -0,0 +1,68 @@
+package pk.training.basit.polarbookshop.orderservice.web.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VegasLimitTests {
+
+	private static final long MILLIS = 1_000_000;
+
+	@Test
+	void whenRttStaysAtNoLoadThenLimitIncreases() {
+		var vegasLimit = new VegasLimit(20, 4, 100);
+		vegasLimit.onSample(10 * MILLIS, 20, false);
+
+		int limit = vegasLimit.onSample(10 * MILLIS, 20, false);
+
+		assertThat(limit).isGreaterThan(20);
+	}
+
+	@Test
+	void whenRttGrowsThenLimitDecreases() {
+		var vegasLimit = new VegasLimit(20, 4, 100);
+		vegasLimit.onSample(10 * MILLIS, 20, false);
+
+		// Half of the requests in flight are queueing
+		int limit = vegasLimit.onSample(20 * MILLIS, 20, false);
+
+		assertThat(limit).isLessThan(20);
+	}
+
+	@Test
+	void whenRequestDroppedThenLimitDecreases() {
+		var vegasLimit = new VegasLimit(20, 4, 100);
+		vegasLimit.onSample(10 * MILLIS, 20, false);
+
+		int limit = vegasLimit.onSample(10 * MILLIS, 20, true);
+
+		assertThat(limit).isLessThan(20);
+	}
+
+	@Test
+	void whenLimitLargelyUnusedThenLimitUnchanged() {
+		var vegasLimit = new VegasLimit(20, 4, 100);
+		vegasLimit.onSample(10 * MILLIS, 2, false);
+
+		int limit = vegasLimit.onSample(10 * MILLIS, 2, false);
+
+		assertThat(limit).isEqualTo(20);
+	}
+
+	@Test
+	void whenOverloadedThenLimitStaysWithinBounds() {
+		var vegasLimit = new VegasLimit(20, 4, 100);
+		vegasLimit.onSample(10 * MILLIS, 20, false);
+
+		for (int i = 0; i < 100; i++) {
+			vegasLimit.onSample(10 * MILLIS, 20, true);
+		}
+		assertThat(vegasLimit.getLimit()).isEqualTo(4);
+
+		for (int i = 0; i < 100; i++) {
+			vegasLimit.onSample(10 * MILLIS, vegasLimit.getLimit(), false);
+		}
+		assertThat(vegasLimit.getLimit()).isEqualTo(100);
+	}
+
+}
@@ -4,15 +4,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import pk.training.basit.polarbookshop.orderservice.enums.OrderStatus;
 import pk.training.basit.polarbookshop.orderservice.r2dbc.entity.Order;
 import pk.training.basit.polarbookshop.orderservice.service.OrderService;
 import pk.training.basit.polarbookshop.orderservice.service.impl.OrderServiceImpl;
+import pk.training.basit.polarbookshop.orderservice.web.dto.BookDTO;
+import pk.training.basit.polarbookshop.orderservice.web.request.MultiLineOrderRequest;
 import pk.training.basit.polarbookshop.orderservice.web.request.OrderRequest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 
 // Identifies a test class that focuses on Spring WebFlux components, targeting OrderController
@@ -48,4 +62,103 @@ class OrderControllerWebFluxTests {
 				});
 	}
 
+	@Test
+	void whenSeveralLinesOrderedThenStatusReturnedPerLine() {
+		var acceptedLine = new OrderRequest("1234567890", 1);
+		var rejectedLine = new OrderRequest("1234567891", 2);
+		var lines = List.of(acceptedLine, rejectedLine);
+		var book = new BookDTO(acceptedLine.isbn(), "Title", "Author", 9.90);
+
+		given(orderService.submitOrders(lines)).willReturn(Flux.just(
+				OrderServiceImpl.buildAcceptedOrder(book, acceptedLine.quantity()),
+				OrderServiceImpl.buildRejectedOrder(rejectedLine.isbn(), rejectedLine.quantity())));
+
+		webClient
+				.post()
+				.uri("/orders/batch")
+				.bodyValue(new MultiLineOrderRequest(lines))
+				.exchange()
+				.expectStatus().is2xxSuccessful()
+				.expectBodyList(Order.class).value(actualOrders -> {
+					assertThat(actualOrders).extracting(Order::status)
+							.containsExactly(OrderStatus.ACCEPTED, OrderStatus.REJECTED);
+				});
+	}
+
+	@Test
+	void whenOrderLineNotValidThenBadRequest() {
+		var lines = List.of(new OrderRequest("1234567890", 1), new OrderRequest("1234567891", 7));
+
+		webClient
+				.post()
+				.uri("/orders/batch")
+				.bodyValue(new MultiLineOrderRequest(lines))
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void whenCountNotRequestedThenSliceWithoutTotals() {
+		var order = OrderServiceImpl.buildRejectedOrder("1234567890", 1);
+		given(orderService.getOrderSlice(any()))
+				.willReturn(Mono.just(new SliceImpl<>(List.of(order), PageRequest.of(0, 1), true)));
+
+		webClient
+				.get()
+				.uri("/orders?count=false&size=1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.hasNext").isEqualTo(true)
+				.jsonPath("$.totalElements").doesNotExist();
+	}
+
+	@Test
+	void whenCursorGivenThenWindowAfterCursor() {
+		var order = Order.builder("1234567890").id(7L).quantity(1).status(OrderStatus.REJECTED).build();
+		given(orderService.getOrderWindow(8L, 1)).willReturn(Mono.just(
+				Window.from(List.of(order), index -> ScrollPosition.forward(Map.of("id", 7L)), true)));
+
+		// "OA" is the token of the order with identifier 8
+		webClient
+				.get()
+				.uri("/orders?cursor=OA&size=1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.content[0].id").isEqualTo(7)
+				.jsonPath("$.nextCursor").isEqualTo("Nw");
+	}
+
+	@Test
+	void whenCursorNotValidThenBadRequest() {
+		webClient
+				.get()
+				.uri("/orders?cursor=not-a-cursor")
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void whenOrdersExportedThenStreamedAsNdjson() {
+		var from = Instant.parse("2023-09-01T00:00:00Z");
+		given(orderService.exportOrders(from, null, OrderStatus.ACCEPTED)).willReturn(Flux.just(
+				Order.builder("1234567890").id(1L).quantity(1).status(OrderStatus.ACCEPTED).build(),
+				Order.builder("1234567891").id(2L).quantity(2).status(OrderStatus.ACCEPTED).build()));
+
+		webClient
+				.get()
+				.uri("/orders/export?from=2023-09-01T00:00:00Z&status=ACCEPTED")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(Order.class)
+				.getResponseBody()
+				.as(StepVerifier::create)
+				.expectNextMatches(order -> order.id() == 1L)
+				.expectNextMatches(order -> order.id() == 2L)
+				.verifyComplete();
+	}
+
 }